@@ -0,0 +1,137 @@
+package de.danielstein.gridgraph;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the GridGraph life cycle on generated graphs (@see {@link SyntheticDag}).
+ *
+ * Build and run with:
+ * mvn -Pbenchmark package
+ * java -jar target/benchmarks.jar GridGraphBenchmark -p vertexCount=1000
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GridGraphBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    int vertexCount;
+
+    @Param({"3"})
+    int fanOut;
+
+    @Param({"0.2"})
+    double longEdgeRatio;
+
+    private SyntheticDag dag;
+    private GridGraph<Integer> prepared;
+    private Path awaJson;
+    private BoxDrawingRenderer windowRenderer;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        dag = new SyntheticDag(vertexCount, fanOut, longEdgeRatio, 42);
+        prepared = dag.toGraph().prepare();
+        windowRenderer = new BoxDrawingRenderer(prepared);
+        // builds the viewport index
+        windowRenderer.render(0, 0, 0, 0);
+        awaJson = Files.createTempFile("gridgraph-benchmark", ".json");
+        dag.writeAwaJson(awaJson);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(awaJson);
+    }
+
+    /** Mutations change the graph, so every thread works on its own clone */
+    @State(Scope.Thread)
+    public static class MutationState {
+        GridGraph<Integer> graph;
+        Random random;
+
+        @Setup(Level.Iteration)
+        public void setup(GridGraphBenchmark benchmark) {
+            graph = benchmark.prepared.clone();
+            random = new Random(42);
+        }
+    }
+
+    @Benchmark
+    public GridGraph<Integer> prepare() {
+        return dag.toGraph().prepare();
+    }
+
+    @Benchmark
+    public GridGraph<Integer> cloneGraph() {
+        return prepared.clone();
+    }
+
+    @Benchmark
+    public Set<Edge> getCrossingEdges() {
+        return prepared.getCrossingEdges();
+    }
+
+    @Benchmark
+    public GridGraph<Integer> mutate(MutationState state) {
+        state.graph.mutate(state.random);
+        return state.graph;
+    }
+
+    @Benchmark
+    public String draw() {
+        return new BoxDrawing(prepared).draw();
+    }
+
+    @Benchmark
+    public void drawStreaming() throws IOException {
+        new BoxDrawingRenderer(prepared).render(Writer.nullWriter());
+    }
+
+    /** A 10 x 40 viewport in the middle of the grid */
+    @Benchmark
+    public String drawWindow() {
+        int layer = prepared.getLayers().size() / 2;
+        int row = prepared.getLayers().get(0).size() / 2;
+        return windowRenderer.render(layer - 5, row - 20, layer + 4, row + 19);
+    }
+
+    @Benchmark
+    public void exportSvg() throws IOException {
+        new SvgExporter().export(prepared, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public GridGraph<?> convert() throws IOException {
+        return new AWAConverter(awaJson).convert();
+    }
+
+    @Benchmark
+    public GridGraph<?> convertStreaming() throws IOException {
+        return new AWAConverter(awaJson).convertStreaming();
+    }
+}
@@ -0,0 +1,100 @@
+package de.danielstein.gridgraph;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generator for layered DAGs as benchmark input.
+ * The vertices 0..n-1 are spread over about sqrt(n) layers. Every vertex except the ones in the first layer gets
+ * one edge from the layer before, so the layering of the {@link GridGraph} reproduces the intended layers.
+ * On top of that every vertex not in the last layer gets fanOut - 1 outgoing edges (fewer if targets repeat), so
+ * the average fan-out is about fanOut. Each of them skips layers with the probability longEdgeRatio, so that fake
+ * vertices are needed.
+ */
+public class SyntheticDag {
+
+    private final int vertexCount;
+    private final int fanOut;
+    private final double longEdgeRatio;
+    private final long seed;
+
+    private final List<int[]> edges = new ArrayList<>();
+
+    public SyntheticDag(int vertexCount, int fanOut, double longEdgeRatio, long seed) {
+        this.vertexCount = vertexCount;
+        this.fanOut = fanOut;
+        this.longEdgeRatio = longEdgeRatio;
+        this.seed = seed;
+        generate();
+    }
+
+    private void generate() {
+        Random random = new Random(seed);
+        int layerCount = Math.max(2, (int) Math.round(Math.sqrt(vertexCount)));
+        int[] layerStart = new int[layerCount + 1];
+        for (int l = 0; l <= layerCount; l++) {
+            layerStart[l] = (int) ((long) l * vertexCount / layerCount);
+        }
+        for (int l = 1; l < layerCount; l++) {
+            for (int v = layerStart[l]; v < layerStart[l + 1]; v++) {
+                edges.add(new int[]{pick(random, layerStart, l - 1), v});
+            }
+        }
+        for (int l = 0; l < layerCount - 1; l++) {
+            for (int v = layerStart[l]; v < layerStart[l + 1]; v++) {
+                Set<Integer> targets = new LinkedHashSet<>();
+                for (int i = 1; i < fanOut; i++) {
+                    int targetLayer = l + 1;
+                    if (l + 2 < layerCount && random.nextDouble() < longEdgeRatio) {
+                        targetLayer = l + 2 + random.nextInt(layerCount - l - 2);
+                    }
+                    targets.add(pick(random, layerStart, targetLayer));
+                }
+                for (int target : targets) {
+                    edges.add(new int[]{v, target});
+                }
+            }
+        }
+    }
+
+    private static int pick(Random random, int[] layerStart, int layer) {
+        return layerStart[layer] + random.nextInt(layerStart[layer + 1] - layerStart[layer]);
+    }
+
+    /** @return source / target pairs, may contain an edge twice */
+    public List<int[]> getEdges() {
+        return edges;
+    }
+
+    /** @return a new, not yet prepared graph */
+    public GridGraph<Integer> toGraph() {
+        GridGraph<Integer> graph = new GridGraph<>();
+        for (int[] edge : edges) {
+            graph.addEdge(edge[0], edge[1]);
+        }
+        return graph;
+    }
+
+    /** Writes the edges in the format read by the {@link AWAConverter} */
+    public void writeAwaJson(Path file) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("{\"data\":{\"jobp\":{\"line_conditions\":[");
+            for (int i = 0; i < edges.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write("{\"workflow_line_number\":" + edges.get(i)[1]
+                        + ",\"predecessor_line_number\":" + edges.get(i)[0] + "}");
+            }
+            writer.write("]}}}");
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package de.danielstein.gridgraph;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Converts all AWA exports of a directory concurrently (@see {@link AWAConverter#convertStreaming()}) and hands
+ * every prepared graph to a {@link Sink}.
+ *
+ * At most {@link #maxInFlight(int)} files are processed or waiting at the same time, the directory is only read
+ * further when one of them is done. Files bigger than {@link #maxFileSize(long)} are not read at all, and a file
+ * whose conversion takes longer than {@link #timeout(Duration)} is reported as failed right away, so a single
+ * file can not stall the results. Its worker is interrupted, which stops reading the export at the next buffer
+ * fill; preparing the graph can not be interrupted. The file counts as in flight until its worker is done.
+ *
+ * Usage:
+ * new AWABatchConverter().maxInFlight(16).convert(dir, "*.json", sink)
+ */
+public class AWABatchConverter {
+
+    /**
+     * Receives the results of a batch. Called from the worker threads, so implementations have to be thread safe.
+     * Exactly one of the methods is called per file.
+     */
+    public interface Sink {
+        void accept(Path file, GridGraph<?> graph);
+
+        void failed(Path file, Exception e);
+    }
+
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int maxInFlight = 2 * threads;
+    private long maxFileSize = 64L * 1024 * 1024;
+    private Duration timeout = Duration.ofMinutes(1);
+
+    /** Number of worker threads, defaults to the number of cores */
+    public AWABatchConverter threads(int threads) {
+        this.threads = threads;
+        return this;
+    }
+
+    /** Maximal number of files being converted or queued for conversion */
+    public AWABatchConverter maxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+        return this;
+    }
+
+    /** Files bigger than this (in bytes) are reported as failed without reading them */
+    public AWABatchConverter maxFileSize(long maxFileSize) {
+        this.maxFileSize = maxFileSize;
+        return this;
+    }
+
+    /** Maximal time per file, measured from the start of its conversion, null for no limit */
+    public AWABatchConverter timeout(Duration timeout) {
+        this.timeout = timeout;
+        return this;
+    }
+
+    /**
+     * Converts all regular files below the directory whose path relative to it matches the glob.
+     * Returns after every file was handed to the sink.
+     * @param glob e.g. "*.json" or "**&#47;*.json", @see java.nio.file.FileSystem#getPathMatcher(String)
+     * @return the number of files converted successfully
+     */
+    public long convert(Path directory, String glob, Sink sink) throws IOException, InterruptedException {
+        PathMatcher matcher = directory.getFileSystem().getPathMatcher("glob:" + glob);
+        Batch batch = new Batch(sink);
+        try (Stream<Path> files = Files.walk(directory)) {
+            Iterator<Path> iterator = files.iterator();
+            while (hasNext(iterator)) {
+                Path file = iterator.next();
+                if (Files.isRegularFile(file) && matcher.matches(directory.relativize(file))) {
+                    batch.submit(file);
+                }
+            }
+            return batch.await();
+        } finally {
+            batch.shutdown();
+        }
+    }
+
+    /** State of one {@link #convert(Path, String, Sink)} call */
+    private class Batch {
+        final Sink sink;
+        final Semaphore inFlight = new Semaphore(maxInFlight);
+        final AtomicLong converted = new AtomicLong();
+        final ExecutorService workers = Executors.newFixedThreadPool(threads);
+        final ScheduledThreadPoolExecutor watchdog = new ScheduledThreadPoolExecutor(1);
+
+        Batch(Sink sink) {
+            this.sink = sink;
+            watchdog.setRemoveOnCancelPolicy(true);
+        }
+
+        /** Blocks while maxInFlight files are in progress */
+        void submit(Path file) throws InterruptedException {
+            inFlight.acquire();
+            Conversion conversion = new Conversion(this, file);
+            conversion.task = workers.submit(conversion::run);
+        }
+
+        /** @return the number of converted files, once all files are done */
+        long await() throws InterruptedException {
+            inFlight.acquire(maxInFlight);
+            return converted.get();
+        }
+
+        void shutdown() {
+            workers.shutdownNow();
+            watchdog.shutdownNow();
+        }
+    }
+
+    /**
+     * One file, reported exactly once: by the worker or by the watchdog. Its permit of the batch is released by
+     * the worker only, when it is really done, so a timed out file still counts until its thread is free again.
+     */
+    private class Conversion {
+        final Batch batch;
+        final Path file;
+        final AtomicBoolean reported = new AtomicBoolean();
+        volatile Future<?> task;
+        volatile ScheduledFuture<?> timer;
+
+        Conversion(Batch batch, Path file) {
+            this.batch = batch;
+            this.file = file;
+        }
+
+        void run() {
+            try {
+                // started here, not at submit, so waiting in the queue of the workers does not count
+                if (timeout != null) {
+                    timer = batch.watchdog.schedule(this::timedOut, timeout.toMillis(), TimeUnit.MILLISECONDS);
+                }
+                GridGraph<?> graph;
+                try {
+                    graph = convert(file);
+                } catch (Throwable e) {
+                    // errors like StackOverflowError are reported too, otherwise the file would never be done
+                    Exception failure = e instanceof Exception ? (Exception) e
+                            : new ExecutionException("Conversion of " + file + " failed", e);
+                    report(() -> batch.sink.failed(file, failure));
+                    return;
+                }
+                report(() -> {
+                    batch.converted.incrementAndGet();
+                    batch.sink.accept(file, graph);
+                });
+            } finally {
+                batch.inFlight.release();
+            }
+        }
+
+        void timedOut() {
+            report(() -> batch.sink.failed(file,
+                    new TimeoutException("Conversion of " + file + " took longer than " + timeout)));
+            Future<?> running = task;
+            if (running != null) {
+                running.cancel(true);
+            }
+        }
+
+        private void report(Runnable callback) {
+            if (!reported.compareAndSet(false, true)) {
+                return;
+            }
+            ScheduledFuture<?> pendingTimer = timer;
+            if (pendingTimer != null) {
+                pendingTimer.cancel(false);
+            }
+            callback.run();
+        }
+    }
+
+    private GridGraph<?> convert(Path file) throws IOException {
+        long size = Files.size(file);
+        if (size > maxFileSize) {
+            throw new IOException(file + " has " + size + " bytes, more than the maximum of " + maxFileSize);
+        }
+        return new AWAConverter(file).convertStreaming();
+    }
+
+    private static boolean hasNext(Iterator<Path> iterator) throws IOException {
+        try {
+            return iterator.hasNext();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
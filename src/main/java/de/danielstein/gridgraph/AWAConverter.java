@@ -6,6 +6,7 @@ import com.jayway.jsonpath.JsonPath;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -35,4 +36,76 @@ public class AWAConverter {
             return graph.prepare();
         }
     }
+
+    /**
+     * Same result as {@link #convert()}, but reads the export with a pull parser instead of building the whole
+     * document tree: everything outside $.data.jobp.line_conditions is skipped, every line condition is added
+     * as edge right away. The memory needed does not depend on the size of the export.
+     * @throws IOException also if a line condition has no predecessor_line_number or workflow_line_number
+     */
+    public GridGraph<?> convertStreaming() throws IOException {
+        try (JsonPullReader reader = new JsonPullReader(
+                new InputStreamReader(Files.newInputStream(jsonFile), StandardCharsets.UTF_8))) {
+            GridGraph<Integer> graph = new GridGraph<>();
+            if (enter(reader, "data") && enter(reader, "jobp") && enter(reader, "line_conditions")) {
+                reader.expect(JsonPullReader.Token.BEGIN_ARRAY);
+                while (reader.peek() == JsonPullReader.Token.BEGIN_OBJECT) {
+                    readLineCondition(reader, graph);
+                }
+                reader.expect(JsonPullReader.Token.END_ARRAY);
+            }
+            return graph.prepare();
+        }
+    }
+
+    /**
+     * Moves the reader to the value of the member with the given name in the next object, skipping all other
+     * members.
+     * @return false, if the next value is no object or has no such member
+     */
+    private static boolean enter(JsonPullReader reader, String name) throws IOException {
+        if (reader.next() != JsonPullReader.Token.BEGIN_OBJECT) {
+            return false;
+        }
+        while (reader.next() == JsonPullReader.Token.NAME) {
+            if (name.equals(reader.text())) {
+                return true;
+            }
+            reader.skipValue();
+        }
+        return false;
+    }
+
+    private static void readLineCondition(JsonPullReader reader, GridGraph<Integer> graph) throws IOException {
+        reader.expect(JsonPullReader.Token.BEGIN_OBJECT);
+        Integer target = null;
+        Integer source = null;
+        while (reader.next() == JsonPullReader.Token.NAME) {
+            String name = reader.text();
+            if ("workflow_line_number".equals(name)) {
+                target = readInt(reader);
+            } else if ("predecessor_line_number".equals(name)) {
+                source = readInt(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        if (source == null || target == null) {
+            throw new IOException("Line condition without predecessor_line_number or workflow_line_number");
+        }
+        graph.addEdge(source, target);
+    }
+
+    private static Integer readInt(JsonPullReader reader) throws IOException {
+        if (reader.peek() != JsonPullReader.Token.NUMBER) {
+            reader.skipValue();
+            return null;
+        }
+        reader.next();
+        try {
+            return Integer.valueOf(reader.text());
+        } catch (NumberFormatException e) {
+            throw new IOException("Line number is no integer: " + reader.text(), e);
+        }
+    }
 }
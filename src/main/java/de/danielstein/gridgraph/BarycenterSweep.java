@@ -0,0 +1,170 @@
+package de.danielstein.gridgraph;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Deterministic layer sweep (Sugiyama style): every layer is reordered by the barycenter of the neighbours in
+ * the previous layer (forward sweep) respectively the next layer (backward sweep), until a sweep pair brings
+ * no improvement or {@link #maxSweeps(int)} is reached.
+ *
+ * The grid has more rows than vertices per layer, so instead of sorting a layer each vertex is moved to the row
+ * nearest to its barycenter with {@link GridLayout#swapTiles(int, int, int)}. That keeps the swap rules: fakes
+ * only move together with the vertex they lead to and stay aligned in one row. A move is kept, if it reduces the
+ * crossings, or keeps them and brings the vertex closer to its barycenter. Each sweep pair ends with a greedy
+ * switch of neighbouring tiles and rows, which removes crossings the barycenter moves can not reach.
+ *
+ * Usable as fast layout on its own (@see {@link #layout(GridGraph)}) and as seed for the {@link GridLayoutEngine}.
+ */
+public class BarycenterSweep {
+
+    private static final int NOT_SWAPPED = Integer.MIN_VALUE;
+
+    private int maxSweeps = 8;
+
+    /** Maximal number of forward/backward sweep pairs */
+    public BarycenterSweep maxSweeps(int maxSweeps) {
+        this.maxSweeps = maxSweeps;
+        return this;
+    }
+
+    /**
+     * @param preparedGraph a graph after {@link GridGraph#prepare()}, it is not changed.
+     * @return the swept layout as new GridGraph
+     */
+    public <T> GridGraph<T> layout(GridGraph<T> preparedGraph) {
+        return optimize(new GridLayout(preparedGraph)).toGridGraph();
+    }
+
+    /** @return an optimized copy of the given layout */
+    public GridLayout optimize(GridLayout start) {
+        GridLayout layout = start.copy();
+        int layerCount = layout.getLayerCount();
+        for (int sweep = 0; sweep < maxSweeps; sweep++) {
+            boolean improved = false;
+            for (int l = 1; l < layerCount; l++) {
+                improved |= sweepLayer(layout, l, true);
+            }
+            for (int l = layerCount - 2; l >= 0; l--) {
+                improved |= sweepLayer(layout, l, false);
+            }
+            improved |= greedySwitch(layout);
+            if (!improved) {
+                break;
+            }
+        }
+        return layout;
+    }
+
+    /**
+     * Moves the vertices of one layer towards their barycenter, vertices with the smallest barycenter first.
+     * @param forward true: barycenter of the incoming neighbours, false: of the outgoing ones
+     * @return true if at least one vertex was moved
+     */
+    private boolean sweepLayer(GridLayout layout, int iLayer, boolean forward) {
+        CompactGrid topology = layout.getTopology();
+        int first = topology.layerOffsets[iLayer];
+        int last = topology.layerOffsets[iLayer + 1];
+        double[] barycenters = new double[last - first];
+        List<Integer> order = new ArrayList<>(last - first);
+        for (int v = first; v < last; v++) {
+            barycenters[v - first] = barycenter(layout, v, forward);
+            if (!Double.isNaN(barycenters[v - first])) {
+                order.add(v);
+            }
+        }
+        order.sort(Comparator.comparingDouble(v -> barycenters[v - first]));
+
+        boolean moved = false;
+        for (int v : order) {
+            double barycenter = barycenters[v - first];
+            int row = layout.getRow(v);
+            int targetRow = (int) Math.min(Math.round(barycenter), layout.getRowCount() - 1);
+            if (targetRow == row) {
+                continue;
+            }
+            int delta = trySwap(layout, iLayer, row, targetRow);
+            if (delta == NOT_SWAPPED) {
+                continue;
+            }
+            boolean closer = Math.abs(targetRow - barycenter) < Math.abs(row - barycenter);
+            if (delta < 0 || delta == 0 && closer) {
+                moved = true;
+            } else {
+                layout.swapTiles(iLayer, targetRow, row);
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * Greedy switch: exchanges neighbouring tiles of every layer and neighbouring rows of the whole grid,
+     * as long as that removes crossings. Exchanges which do not help are undone.
+     * @return true if anything was exchanged
+     */
+    private boolean greedySwitch(GridLayout layout) {
+        boolean switched = false;
+        for (int row = 0; row < layout.getRowCount() - 1; row++) {
+            if (layout.rowSwapDelta(row) < 0) {
+                layout.swapRow(row, row + 1);
+                switched = true;
+            }
+        }
+        for (int l = 0; l < layout.getLayerCount(); l++) {
+            for (int row = 0; row < layout.getRowCount() - 1; row++) {
+                int from = row;
+                int to = row + 1;
+                int delta = trySwap(layout, l, from, to);
+                if (delta == NOT_SWAPPED) {
+                    from = row + 1;
+                    to = row;
+                    delta = trySwap(layout, l, from, to);
+                }
+                if (delta == NOT_SWAPPED) {
+                    continue;
+                }
+                if (delta < 0) {
+                    switched = true;
+                } else {
+                    layout.swapTiles(l, to, from);
+                }
+            }
+        }
+        return switched;
+    }
+
+    /**
+     * Swaps the tiles like {@link GridLayout#swapTiles(int, int, int)}, counting only the crossings of the layer
+     * pairs the swap changes: from the one before the moved fake chain up to the one after iLayer.
+     * @return the change of the crossings, {@link #NOT_SWAPPED} if the swap is not allowed
+     */
+    private static int trySwap(GridLayout layout, int iLayer, int iRowFrom, int iRowTo) {
+        int fromLayer = layout.firstMovedLayer(iLayer, iRowFrom) - 1;
+        // most swaps are not allowed, so the crossings before are counted only after a successful swap
+        if (!layout.swapTiles(iLayer, iRowFrom, iRowTo)) {
+            return NOT_SWAPPED;
+        }
+        int after = layout.countCrossings(fromLayer, iLayer);
+        layout.swapTiles(iLayer, iRowTo, iRowFrom);
+        int before = layout.countCrossings(fromLayer, iLayer);
+        layout.swapTiles(iLayer, iRowFrom, iRowTo);
+        return after - before;
+    }
+
+    /** @return average row of the neighbours, NaN if there are none */
+    private static double barycenter(GridLayout layout, int v, boolean forward) {
+        CompactGrid topology = layout.getTopology();
+        int[] offsets = forward ? topology.inOffsets : topology.outOffsets;
+        int[] neighbours = forward ? topology.inSources : topology.outTargets;
+        int degree = offsets[v + 1] - offsets[v];
+        if (degree == 0) {
+            return Double.NaN;
+        }
+        long sum = 0;
+        for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+            sum += layout.getRow(neighbours[e]);
+        }
+        return sum / (double) degree;
+    }
+}
@@ -1,5 +1,6 @@
 package de.danielstein.gridgraph;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -68,6 +69,14 @@ public class BoxDrawing {
 
     }
 
+    /**
+     * Writes the drawing row by row into out, without building the whole text.
+     * @see BoxDrawingRenderer
+     */
+    public void draw(Appendable out) throws IOException {
+        new BoxDrawingRenderer(graph).render(out);
+    }
+
     private String tile2String( Tile tile) {
         String retVal = null;
         if (tile.isSpacer()) {
@@ -89,11 +98,16 @@ public class BoxDrawing {
     }
 
     private void adoptConnections() {
-        for (Edge sourceEdge : graph.getSourceEdges()) {
-            Vertex source = sourceEdge.getSource();
-            Vertex target = sourceEdge.getTarget();
-            Layer sourceLayer = layers.get(source.getLayer());
-            adoptConnection(sourceLayer, source,target);
+        // by layer and row of the source, merging the symbols depends on that order
+        for (List<Tile> glayer : graph.layers) {
+            for (Tile tile : glayer) {
+                for (Edge sourceEdge : tile.sourceEdges) {
+                    Vertex source = sourceEdge.getSource();
+                    Vertex target = sourceEdge.getTarget();
+                    Layer sourceLayer = layers.get(source.getLayer());
+                    adoptConnection(sourceLayer, source,target);
+                }
+            }
         }
     }
 
@@ -0,0 +1,237 @@
+package de.danielstein.gridgraph;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import static de.danielstein.gridgraph.Symbol.*;
+
+/**
+ * Streaming variant of {@link BoxDrawing}: produces the same text, but writes it row by row into an
+ * {@link Appendable}. Every row is rendered into one reused char buffer, so the memory needed depends on the
+ * width of the diagram and the number of edges, not on its height.
+ *
+ * The connection symbols of a row are merged from the edges crossing that row. The edges of every layer are
+ * kept sorted by their upper and lower row, so the active ones are found while walking down the rows. They are
+ * merged in the order {@link BoxDrawing} uses, since {@link Symbol#merge(Symbol, Symbol)} depends on it.
+ *
+ * For viewports a rectangle of layers and rows can be rendered on its own, @see {@link ViewportIndex}.
+ */
+public class BoxDrawingRenderer {
+
+    private final GridGraph<?> graph;
+    private ViewportIndex index;
+    /** {@link GridGraph#fingerprint()} and {@link GridGraph#modCount()} of the graph when the index was built */
+    private long indexFingerprint;
+    private int indexModCount;
+
+    public BoxDrawingRenderer(GridGraph<?> graph) {
+        this.graph = graph;
+    }
+
+    /** @return the whole drawing, same as {@link BoxDrawing#draw()} */
+    public String render() {
+        StringBuilder b = new StringBuilder(1000);
+        try {
+            render(b);
+        } catch (IOException e) {
+            // a StringBuilder does not throw
+            throw new IllegalStateException(e);
+        }
+        return b.toString();
+    }
+
+    public void render(Appendable out) throws IOException {
+        List<List<Tile>> layers = graph.layers;
+        int layerCount = layers.size();
+        if (layerCount == 0) {
+            return;
+        }
+        int rowCount = layers.get(0).size();
+        int longestDomainObj = 0;
+        for (List<Tile> layer : layers) {
+            for (Tile tile : layer) {
+                if (tile.isDomainObject()) {
+                    longestDomainObj = Math.max(longestDomainObj, ((Vertex) tile).getDomainObj().toString().length());
+                }
+            }
+        }
+
+        // edges of every layer in the order of BoxDrawing: by source row, then in the order of the source
+        int[] layerOffsets = new int[layerCount + 1];
+        for (int l = 0; l < layerCount; l++) {
+            int edges = 0;
+            for (Tile tile : layers.get(l)) {
+                edges += tile.sourceEdges.size();
+            }
+            layerOffsets[l + 1] = layerOffsets[l] + edges;
+        }
+        int edgeCount = layerOffsets[layerCount];
+        int[] sourceRows = new int[edgeCount];
+        int[] targetRows = new int[edgeCount];
+        int e = 0;
+        for (List<Tile> layer : layers) {
+            for (Tile tile : layer) {
+                for (Edge edge : tile.sourceEdges) {
+                    sourceRows[e] = edge.getSource().getRow();
+                    targetRows[e] = edge.getTarget().getRow();
+                    e++;
+                }
+            }
+        }
+        long[] byTop = new long[edgeCount];
+        long[] byBottom = new long[edgeCount];
+        for (e = 0; e < edgeCount; e++) {
+            byTop[e] = ((long) Math.min(sourceRows[e], targetRows[e]) << 32) | e;
+            byBottom[e] = ((long) Math.max(sourceRows[e], targetRows[e]) << 32) | e;
+        }
+        for (int l = 0; l < layerCount; l++) {
+            Arrays.sort(byTop, layerOffsets[l], layerOffsets[l + 1]);
+            Arrays.sort(byBottom, layerOffsets[l], layerOffsets[l + 1]);
+        }
+        int[] nextTop = layerOffsets.clone();
+        int[] nextBottom = layerOffsets.clone();
+        BitSet active = new BitSet(edgeCount);
+
+        int tileWidth = longestDomainObj + 2;
+        int layerWidth = tileWidth + 3;
+        char[] line = new char[layerCount * layerWidth + 1];
+        line[line.length - 1] = '\n';
+        Writer writer = out instanceof Writer ? (Writer) out : null;
+        CharBuffer lineBuffer = CharBuffer.wrap(line);
+        Symbol[] connection = new Symbol[3];
+
+        for (int row = 0; row < rowCount; row++) {
+            for (int l = 0; l < layerCount; l++) {
+                int end = layerOffsets[l + 1];
+                while (nextTop[l] < end && (int) (byTop[nextTop[l]] >>> 32) <= row) {
+                    active.set((int) byTop[nextTop[l]++]);
+                }
+                while (nextBottom[l] < end && (int) (byBottom[nextBottom[l]] >>> 32) < row) {
+                    active.clear((int) byBottom[nextBottom[l]++]);
+                }
+                int pos = l * layerWidth;
+                writeTile(layers.get(l).get(row), line, pos, tileWidth);
+
+                Arrays.fill(connection, SPACE);
+                for (e = active.nextSetBit(layerOffsets[l]); e >= 0 && e < end; e = active.nextSetBit(e + 1)) {
+                    mergeEdge(connection, row, sourceRows[e], targetRows[e]);
+                }
+                writeConnection(connection, line, pos + tileWidth);
+            }
+            if (writer != null) {
+                writer.write(line);
+            } else {
+                out.append(lineBuffer);
+            }
+        }
+    }
+
+    /** @return the rectangle of the drawing, both corners included, @see {@link #render(Appendable, int, int, int, int)} */
+    public String render(int fromLayer, int fromRow, int toLayer, int toRow) {
+        StringBuilder b = new StringBuilder(1000);
+        try {
+            render(b, fromLayer, fromRow, toLayer, toRow);
+        } catch (IOException e) {
+            // a StringBuilder does not throw
+            throw new IllegalStateException(e);
+        }
+        return b.toString();
+    }
+
+    /**
+     * Renders only a rectangle of the drawing, both corners included and clipped to the grid: the result is the
+     * same as cutting the layers fromLayer..toLayer out of the rows fromRow..toRow of {@link #render()}, edges
+     * leaving the rectangle are cut at its border. The edges are looked up in a {@link ViewportIndex}, built on
+     * the first call and after the graph was changed, so every further call costs time proportional to the
+     * rectangle, not to the whole grid.
+     */
+    public void render(Appendable out, int fromLayer, int fromRow, int toLayer, int toRow) throws IOException {
+        ViewportIndex index = getIndex();
+        fromLayer = Math.max(fromLayer, 0);
+        fromRow = Math.max(fromRow, 0);
+        toLayer = Math.min(toLayer, index.getLayerCount() - 1);
+        toRow = Math.min(toRow, index.getRowCount() - 1);
+        if (fromLayer > toLayer || fromRow > toRow) {
+            return;
+        }
+        int[][] edges = new int[toLayer - fromLayer + 1][];
+        for (int l = fromLayer; l <= toLayer; l++) {
+            edges[l - fromLayer] = index.query(l, fromRow, toRow);
+        }
+
+        int tileWidth = index.getLongestDomainObj() + 2;
+        int layerWidth = tileWidth + 3;
+        char[] line = new char[(toLayer - fromLayer + 1) * layerWidth + 1];
+        line[line.length - 1] = '\n';
+        Symbol[] connection = new Symbol[3];
+        for (int row = fromRow; row <= toRow; row++) {
+            for (int l = fromLayer; l <= toLayer; l++) {
+                int pos = (l - fromLayer) * layerWidth;
+                writeTile(graph.getTile(l, row), line, pos, tileWidth);
+                Arrays.fill(connection, SPACE);
+                // ascending, so the edges are merged in the same order as in the whole drawing
+                for (int e : edges[l - fromLayer]) {
+                    if (index.getTopRow(l, e) <= row && row <= index.getBottomRow(l, e)) {
+                        Edge edge = index.getEdge(l, e);
+                        mergeEdge(connection, row, edge.getSource().getRow(), edge.getTarget().getRow());
+                    }
+                }
+                writeConnection(connection, line, pos + tileWidth);
+            }
+            out.append(CharBuffer.wrap(line));
+        }
+    }
+
+    /**
+     * The index is rebuilt, if the graph was changed since the last call: swaps and mutations move tiles, which
+     * changes the fingerprint, edits of the edges and cells change the modification counter.
+     */
+    private ViewportIndex getIndex() {
+        long fingerprint = graph.fingerprint();
+        if (index == null || indexFingerprint != fingerprint || indexModCount != graph.modCount()) {
+            index = new ViewportIndex(graph);
+            indexFingerprint = fingerprint;
+            indexModCount = graph.modCount();
+        }
+        return index;
+    }
+
+    /** Merges the symbols of an edge crossing the row into the left, middle and right part of the connection */
+    private static void mergeEdge(Symbol[] connection, int row, int sourceRow, int targetRow) {
+        if (sourceRow == targetRow) {
+            connection[0] = merge(connection[0], HORIZONTAL);
+            connection[1] = merge(connection[1], HORIZONTAL);
+            connection[2] = merge(connection[2], HORIZONTAL);
+        } else if (row == sourceRow) {
+            connection[0] = merge(connection[0], HORIZONTAL);
+            connection[1] = merge(connection[1], sourceRow > targetRow ? CORNER_BOTTOM_RIGHT : CORNER_TOP_RIGHT);
+        } else if (row == targetRow) {
+            connection[1] = merge(connection[1], sourceRow > targetRow ? CORNER_TOP_LEFT : CORNER_BOTTOM_LEFT);
+            connection[2] = merge(connection[2], HORIZONTAL);
+        } else {
+            connection[1] = merge(connection[1], VERTICAL);
+        }
+    }
+
+    private static void writeConnection(Symbol[] connection, char[] line, int pos) {
+        line[pos] = connection[0].getCharacter();
+        line[pos + 1] = connection[1].getCharacter();
+        line[pos + 2] = connection[2].getCharacter();
+    }
+
+    private static void writeTile(Tile tile, char[] line, int pos, int tileWidth) {
+        if (tile.isDomainObject()) {
+            String label = ((Vertex) tile).getDomainObj().toString();
+            line[pos] = '[';
+            label.getChars(0, label.length(), line, pos + 1);
+            Arrays.fill(line, pos + 1 + label.length(), pos + tileWidth - 1, ' ');
+            line[pos + tileWidth - 1] = ']';
+        } else {
+            Arrays.fill(line, pos, pos + tileWidth, tile.isFake() ? HORIZONTAL.getCharacter() : ' ');
+        }
+    }
+}
@@ -0,0 +1,428 @@
+package de.danielstein.gridgraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, array based copy of a prepared {@link GridGraph} for the optimization hot path.
+ *
+ * Vertices are numbered 0..n-1 in layer/row order, spacers are not represented as objects at all:
+ * <ul>
+ *     <li>positions: row of every vertex, followed by the vertex number in every cell
+ *     (layer * rowCount + row), -1 for a spacer</li>
+ *     <li>outgoing and incoming edges as CSR arrays (offsets per vertex into one target / source array)</li>
+ *     <li>a bitset marking the fake vertices</li>
+ * </ul>
+ * Everything except the positions describes the topology, which never changes during layouting and is shared
+ * by all layouts derived from this grid.
+ */
+public final class CompactGrid {
+
+    final int layerCount;
+    final int rowCount;
+    final int vertexCount;
+    final int vertexSequence;
+
+    final int[] ids;
+    final Object[] domainObjs;
+    final int[] layerOf;
+    /** Vertices of layer l are layerOffsets[l] until layerOffsets[l+1] - 1 */
+    final int[] layerOffsets;
+    final BitSet fakes;
+
+    final int[] outOffsets;
+    final int[] outTargets;
+    final int[] inOffsets;
+    final int[] inSources;
+    /** The incoming fake vertex of every vertex, -1 if there is none. */
+    final int[] incomingFake;
+    /**
+     * The domain vertex every vertex belongs to: itself for domain vertices, the vertex its chain leads to for
+     * fakes. All vertices of such a chain have to be in the same row.
+     */
+    final int[] chainOf;
+    /** First layer of the chain ending in the given domain vertex */
+    final int[] chainStart;
+
+    private final int[] positions;
+
+    public CompactGrid(GridGraph<?> graph) {
+        List<List<Tile>> layers = graph.layers;
+        layerCount = layers.size();
+        rowCount = layers.stream().mapToInt(List::size).max().orElse(0);
+        vertexSequence = graph.vertexSequence.get();
+
+        Map<Vertex, Integer> vertex2Index = new IdentityHashMap<>();
+        List<Vertex> vertices = new ArrayList<>();
+        layerOffsets = new int[layerCount + 1];
+        for (int l = 0; l < layerCount; l++) {
+            layerOffsets[l] = vertices.size();
+            for (Tile tile : layers.get(l)) {
+                if (!tile.isSpacer()) {
+                    vertex2Index.put((Vertex) tile, vertices.size());
+                    vertices.add((Vertex) tile);
+                }
+            }
+        }
+        layerOffsets[layerCount] = vertices.size();
+        vertexCount = vertices.size();
+
+        ids = new int[vertexCount];
+        domainObjs = new Object[vertexCount];
+        layerOf = new int[vertexCount];
+        fakes = new BitSet(vertexCount);
+        outOffsets = new int[vertexCount + 1];
+        inOffsets = new int[vertexCount + 1];
+        incomingFake = new int[vertexCount];
+        positions = new int[vertexCount + layerCount * rowCount];
+        Arrays.fill(positions, vertexCount, positions.length, -1);
+
+        int edgeCount = 0;
+        for (int v = 0; v < vertexCount; v++) {
+            Vertex vertex = vertices.get(v);
+            ids[v] = vertex.id;
+            domainObjs[v] = vertex.getDomainObj();
+            layerOf[v] = vertex.getLayer();
+            fakes.set(v, vertex.isFake());
+            positions[v] = vertex.getRow();
+            positions[cell(vertex.getLayer(), vertex.getRow())] = v;
+            edgeCount += vertex.sourceEdges.size();
+        }
+        outTargets = new int[edgeCount];
+        inSources = new int[edgeCount];
+        int out = 0;
+        int in = 0;
+        for (int v = 0; v < vertexCount; v++) {
+            Vertex vertex = vertices.get(v);
+            outOffsets[v] = out;
+            for (Edge edge : vertex.sourceEdges) {
+                outTargets[out++] = vertex2Index.get(edge.target);
+            }
+            inOffsets[v] = in;
+            incomingFake[v] = -1;
+            for (Edge edge : vertex.targetEdges) {
+                int source = vertex2Index.get(edge.source);
+                inSources[in++] = source;
+                if (edge.source.isFake() && incomingFake[v] < 0) {
+                    incomingFake[v] = source;
+                }
+            }
+        }
+        outOffsets[vertexCount] = out;
+        inOffsets[vertexCount] = in;
+
+        chainOf = new int[vertexCount];
+        chainStart = new int[vertexCount];
+        for (int v = 0; v < vertexCount; v++) {
+            chainStart[v] = layerOf[v];
+        }
+        for (int v = 0; v < vertexCount; v++) {
+            int domain = v;
+            // a fake has exactly one outgoing edge
+            while (fakes.get(domain)) {
+                domain = outTargets[outOffsets[domain]];
+            }
+            chainOf[v] = domain;
+            chainStart[domain] = Math.min(chainStart[domain], layerOf[v]);
+        }
+    }
+
+    /** Same topology with other positions */
+    CompactGrid(CompactGrid topology, int[] positions) {
+        layerCount = topology.layerCount;
+        rowCount = topology.rowCount;
+        vertexCount = topology.vertexCount;
+        vertexSequence = topology.vertexSequence;
+        ids = topology.ids;
+        domainObjs = topology.domainObjs;
+        layerOf = topology.layerOf;
+        layerOffsets = topology.layerOffsets;
+        fakes = topology.fakes;
+        outOffsets = topology.outOffsets;
+        outTargets = topology.outTargets;
+        inOffsets = topology.inOffsets;
+        inSources = topology.inSources;
+        incomingFake = topology.incomingFake;
+        chainOf = topology.chainOf;
+        chainStart = topology.chainStart;
+        this.positions = positions;
+    }
+
+    /** Same topology and positions for other domain objects */
+    CompactGrid(CompactGrid grid, Object[] domainObjs) {
+        layerCount = grid.layerCount;
+        rowCount = grid.rowCount;
+        vertexCount = grid.vertexCount;
+        vertexSequence = grid.vertexSequence;
+        ids = grid.ids;
+        this.domainObjs = domainObjs;
+        layerOf = grid.layerOf;
+        layerOffsets = grid.layerOffsets;
+        fakes = grid.fakes;
+        outOffsets = grid.outOffsets;
+        outTargets = grid.outTargets;
+        inOffsets = grid.inOffsets;
+        inSources = grid.inSources;
+        incomingFake = grid.incomingFake;
+        chainOf = grid.chainOf;
+        chainStart = grid.chainStart;
+        positions = grid.positions;
+    }
+
+    public int getLayerCount() {
+        return layerCount;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    public int getEdgeCount() {
+        return outTargets.length;
+    }
+
+    /** @return the vertex number at the given position, -1 for a spacer */
+    public int vertexAt(int layer, int row) {
+        return positions[cell(layer, row)];
+    }
+
+    public int getLayer(int vertex) {
+        return layerOf[vertex];
+    }
+
+    public int getRow(int vertex) {
+        return positions[vertex];
+    }
+
+    public boolean isFake(int vertex) {
+        return fakes.get(vertex);
+    }
+
+    public Object getDomainObj(int vertex) {
+        return domainObjs[vertex];
+    }
+
+    public int countCrossings() {
+        return countCrossings(positions);
+    }
+
+    /** Converts this back into a {@link GridGraph} with the same vertex ids. */
+    public <T> GridGraph<T> toGridGraph() {
+        return toGridGraph(positions);
+    }
+
+    // ---- shared with the layouts using this topology ----
+
+    int cell(int layer, int row) {
+        return vertexCount + layer * rowCount + row;
+    }
+
+    int[] copyPositions() {
+        return positions.clone();
+    }
+
+    /** Crossings of all layer pairs, see {@link GridGraph#countCrossings(int)} */
+    int countCrossings(int[] positions) {
+        return countCrossings(positions, 0, layerCount - 2);
+    }
+
+    /** Crossings between the layers l and l+1 for every l in fromLayer..toLayer, clipped to the grid */
+    int countCrossings(int[] positions, int fromLayer, int toLayer) {
+        CrossingCounter counter = CrossingCounter.forCurrentThread();
+        int crossings = 0;
+        for (int l = Math.max(fromLayer, 0); l <= Math.min(toLayer, layerCount - 2); l++) {
+            counter.reset(rowCount);
+            int cell = cell(l, 0);
+            for (int row = 0; row < rowCount; row++) {
+                int v = positions[cell + row];
+                if (v < 0) {
+                    continue;
+                }
+                for (int e = outOffsets[v]; e < outOffsets[v + 1]; e++) {
+                    crossings += counter.greater(positions[outTargets[e]]);
+                }
+                for (int e = outOffsets[v]; e < outOffsets[v + 1]; e++) {
+                    counter.insert(positions[outTargets[e]]);
+                }
+            }
+        }
+        return crossings;
+    }
+
+    /**
+     * Change of the crossings, if the rows row and row+1 are swapped in all layers. Only crossings between two
+     * edges touching one of the rows can change, and only if both touch them: the order of the other end points
+     * stays the same. So per layer pair just these few edges are compared before and after the swap.
+     */
+    int rowSwapDelta(int[] positions, int row) {
+        int delta = 0;
+        int[] sourceRows = new int[8];
+        int[] targetRows = new int[8];
+        for (int l = 0; l < layerCount - 1; l++) {
+            int count = 0;
+            for (int r = row; r <= row + 1; r++) {
+                int v = positions[cell(l, r)];
+                for (int e = v < 0 ? 0 : outOffsets[v]; v >= 0 && e < outOffsets[v + 1]; e++) {
+                    if (count == sourceRows.length) {
+                        sourceRows = Arrays.copyOf(sourceRows, count * 2);
+                        targetRows = Arrays.copyOf(targetRows, count * 2);
+                    }
+                    sourceRows[count] = r;
+                    targetRows[count++] = positions[outTargets[e]];
+                }
+            }
+            for (int r = row; r <= row + 1; r++) {
+                int v = positions[cell(l + 1, r)];
+                for (int e = v < 0 ? 0 : inOffsets[v]; v >= 0 && e < inOffsets[v + 1]; e++) {
+                    int sourceRow = positions[inSources[e]];
+                    // edges from row or row+1 are collected already
+                    if (sourceRow == row || sourceRow == row + 1) {
+                        continue;
+                    }
+                    if (count == sourceRows.length) {
+                        sourceRows = Arrays.copyOf(sourceRows, count * 2);
+                        targetRows = Arrays.copyOf(targetRows, count * 2);
+                    }
+                    sourceRows[count] = sourceRow;
+                    targetRows[count++] = r;
+                }
+            }
+            for (int i = 0; i < count - 1; i++) {
+                for (int j = i + 1; j < count; j++) {
+                    delta += crossing(swapped(sourceRows[i], row), swapped(targetRows[i], row),
+                            swapped(sourceRows[j], row), swapped(targetRows[j], row))
+                            - crossing(sourceRows[i], targetRows[i], sourceRows[j], targetRows[j]);
+                }
+            }
+        }
+        return delta;
+    }
+
+    private static int swapped(int r, int row) {
+        return r == row ? row + 1 : r == row + 1 ? row : r;
+    }
+
+    private static int crossing(int s1, int t1, int s2, int t2) {
+        return (long) (s1 - s2) * (t1 - t2) < 0 ? 1 : 0;
+    }
+
+    /**
+     * Lower bound of the crossings of every layout of this topology. Between two layers every cycle of edges
+     * crosses itself at least once: removing one edge of every crossing leaves a drawing without crossings, whose
+     * graph is a forest. So a layer pair needs at least as many crossings as edges have to be removed for that,
+     * its cyclomatic number edges - vertices + connected components. That is the number of edges closing a cycle
+     * in a union find over the pair, O(E α(V)) for the whole grid.
+     */
+    public int crossingLowerBound() {
+        int[] parent = new int[vertexCount];
+        for (int v = 0; v < vertexCount; v++) {
+            parent[v] = v;
+        }
+        int bound = 0;
+        for (int l = 0; l < layerCount - 1; l++) {
+            // every edge either joins two components or closes a cycle
+            for (int v = layerOffsets[l]; v < layerOffsets[l + 1]; v++) {
+                for (int e = outOffsets[v]; e < outOffsets[v + 1]; e++) {
+                    int rootSource = find(parent, v);
+                    int rootTarget = find(parent, outTargets[e]);
+                    if (rootSource == rootTarget) {
+                        bound++;
+                    } else {
+                        parent[rootSource] = rootTarget;
+                    }
+                }
+            }
+            // the vertices of layer l+1 start as single components again for the next pair
+            for (int v = layerOffsets[l + 1]; v < layerOffsets[l + 2]; v++) {
+                parent[v] = v;
+            }
+        }
+        return bound;
+    }
+
+    private static int find(int[] parent, int v) {
+        while (parent[v] != v) {
+            // path halving
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
+    }
+
+    /**
+     * All objectives of {@link LayoutObjectives} in one sweep over the layers: every edge is visited once for the
+     * crossings, its row jump and whether it bends, every cell once for the occupied rows.
+     * @param occupiedRows scratch bitset with at least rowCount bits, it is cleared first
+     */
+    void evaluate(int[] positions, int[] objectives, long[] occupiedRows) {
+        Arrays.fill(occupiedRows, 0, (rowCount + 63) >>> 6, 0L);
+        CrossingCounter counter = CrossingCounter.forCurrentThread();
+        int crossings = 0;
+        int rowJumps = 0;
+        int bends = 0;
+        for (int l = 0; l < layerCount; l++) {
+            counter.reset(rowCount);
+            int cell = cell(l, 0);
+            for (int row = 0; row < rowCount; row++) {
+                int v = positions[cell + row];
+                if (v < 0) {
+                    continue;
+                }
+                occupiedRows[row >>> 6] |= 1L << row;
+                for (int e = outOffsets[v]; e < outOffsets[v + 1]; e++) {
+                    int targetRow = positions[outTargets[e]];
+                    crossings += counter.greater(targetRow);
+                    rowJumps += Math.abs(targetRow - row);
+                    if (targetRow != row) {
+                        bends++;
+                    }
+                }
+                for (int e = outOffsets[v]; e < outOffsets[v + 1]; e++) {
+                    counter.insert(positions[outTargets[e]]);
+                }
+            }
+        }
+        int height = 0;
+        for (int w = 0; w < (rowCount + 63) >>> 6; w++) {
+            height += Long.bitCount(occupiedRows[w]);
+        }
+        objectives[LayoutObjectives.CROSSINGS] = crossings;
+        objectives[LayoutObjectives.ROW_JUMPS] = rowJumps;
+        objectives[LayoutObjectives.BENDS] = bends;
+        objectives[LayoutObjectives.HEIGHT] = height;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> GridGraph<T> toGridGraph(int[] positions) {
+        GridGraph<T> graph = new GridGraph<>(vertexSequence);
+        Vertex[] vertices = new Vertex[vertexCount];
+        for (int l = 0; l < layerCount; l++) {
+            List<Tile> layer = new ArrayList<>(rowCount);
+            for (int row = 0; row < rowCount; row++) {
+                int v = positions[cell(l, row)];
+                Tile tile = v < 0 ? new Tile() : (vertices[v] = new Vertex(ids[v], domainObjs[v]));
+                tile.setLayer(l);
+                tile.setRow(row);
+                layer.add(tile);
+            }
+            graph.layers.add(layer);
+        }
+        for (int v = 0; v < vertexCount; v++) {
+            if (!fakes.get(v)) {
+                graph.register((T) domainObjs[v], vertices[v]);
+            }
+            for (int e = outOffsets[v]; e < outOffsets[v + 1]; e++) {
+                graph.addEdge(vertices[v], vertices[outTargets[e]]);
+            }
+        }
+        return graph;
+    }
+}
@@ -0,0 +1,58 @@
+package de.danielstein.gridgraph;
+
+/**
+ * Counts edge crossings between two adjacent layers by inversion counting over integer row positions
+ * (accumulator tree, Barth/Jünger/Mutzel). The edges have to be fed grouped by source row in ascending
+ * order: for every source first {@link #greater(int)} is asked for each of its target rows, afterwards the
+ * target rows are {@link #insert(int) inserted}. Edges sharing the source or the target row are not counted,
+ * which matches {@link Geom#lineIntersect} ignoring touching end points.
+ *
+ * The tree is reused between calls, so one instance per thread counts without allocating.
+ */
+public class CrossingCounter {
+
+    private static final ThreadLocal<CrossingCounter> PER_THREAD = ThreadLocal.withInitial(CrossingCounter::new);
+
+    // Fenwick tree, 1 based
+    private int[] tree = new int[16];
+    private int size;
+    private int inserted;
+
+    public static CrossingCounter forCurrentThread() {
+        return PER_THREAD.get();
+    }
+
+    /**
+     * Clears the counter for a target layer with the given number of rows.
+     */
+    public void reset(int targetRows) {
+        if (tree.length <= targetRows) {
+            tree = new int[Math.max(targetRows + 1, tree.length * 2)];
+        } else {
+            for (int i = 0; i <= targetRows; i++) {
+                tree[i] = 0;
+            }
+        }
+        size = targetRows;
+        inserted = 0;
+    }
+
+    /**
+     * @return the number of already inserted target rows strictly below the given row, i.e. the number of
+     * crossings an edge ending in targetRow has with the edges of all previous sources.
+     */
+    public int greater(int targetRow) {
+        int lessOrEqual = 0;
+        for (int i = targetRow + 1; i > 0; i -= i & -i) {
+            lessOrEqual += tree[i];
+        }
+        return inserted - lessOrEqual;
+    }
+
+    public void insert(int targetRow) {
+        for (int i = targetRow + 1; i <= size; i += i & -i) {
+            tree[i]++;
+        }
+        inserted++;
+    }
+}
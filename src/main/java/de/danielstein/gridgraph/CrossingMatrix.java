@@ -0,0 +1,269 @@
+package de.danielstein.gridgraph;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Crossing matrices of a prepared {@link GridGraph} for evaluating swaps without touching the graph.
+ *
+ * For every pair of adjacent layers (l, l+1) two matrices are kept, indexed by the rows at creation time:
+ * <ul>
+ *     <li>bySource[u][v]: crossings between the edges leaving row u and the edges leaving row v of layer l,
+ *     if u is placed above v. Only depends on the rows of layer l+1.</li>
+ *     <li>byTarget[p][q]: the same for the edges entering rows p and q of layer l+1. Only depends on the
+ *     rows of layer l.</li>
+ * </ul>
+ * Swapping two tiles in one layer therefore only reads the source matrix of the layer and the target matrix
+ * of its predecessor: O(1) for neighbouring rows, O(|a-b|) otherwise.
+ * Memory is quadratic in the row count per layer pair.
+ *
+ * The matrix is a snapshot, after the graph has been changed a new one has to be created.
+ */
+public class CrossingMatrix {
+
+    private final int[] rowCounts;
+    private final int[][] bySource;
+    private final int[][] byTarget;
+
+    // Edges per layer pair, sorted by source row
+    private final int[][] edgeSourceRows;
+    private final int[][] edgeTargetRows;
+    // Edge indices grouped by source / target row (CSR)
+    private final int[][] sourceRowOffsets;
+    private final int[][] targetRowOffsets;
+    private final int[][] edgesByTargetRow;
+
+    private final int[] pairCrossings;
+    private final int crossings;
+
+    public CrossingMatrix(GridGraph<?> graph) {
+        List<List<Tile>> layers = graph.layers;
+        int pairs = Math.max(0, layers.size() - 1);
+        rowCounts = new int[layers.size()];
+        for (int i = 0; i < layers.size(); i++) {
+            rowCounts[i] = layers.get(i).size();
+        }
+        bySource = new int[pairs][];
+        byTarget = new int[pairs][];
+        edgeSourceRows = new int[pairs][];
+        edgeTargetRows = new int[pairs][];
+        sourceRowOffsets = new int[pairs][];
+        targetRowOffsets = new int[pairs][];
+        edgesByTargetRow = new int[pairs][];
+        pairCrossings = new int[pairs];
+        int total = 0;
+        for (int l = 0; l < pairs; l++) {
+            initPair(l, layers.get(l));
+            total += pairCrossings[l];
+        }
+        crossings = total;
+    }
+
+    /** Crossings of the whole grid at creation time. */
+    public int crossings() {
+        return crossings;
+    }
+
+    /** Crossings between the given layer and its successor at creation time. */
+    public int crossings(int iLayer) {
+        return pairCrossings[iLayer];
+    }
+
+    /**
+     * Change of the crossing count if the tiles in rows a and b of the given layer are exchanged,
+     * as done by {@link GridGraph#swap(int, int, int)}.
+     */
+    public int swapDelta(int iLayer, int rowA, int rowB) {
+        if (rowA == rowB) {
+            return 0;
+        }
+        int a = Math.min(rowA, rowB);
+        int b = Math.max(rowA, rowB);
+        int delta = 0;
+        if (iLayer < bySource.length) {
+            delta += swapDelta(bySource[iLayer], rowCounts[iLayer], a, b);
+        }
+        if (iLayer > 0) {
+            delta += swapDelta(byTarget[iLayer - 1], rowCounts[iLayer], a, b);
+        }
+        return delta;
+    }
+
+    /**
+     * Change of the crossing count if rows a and b are exchanged in all layers from fromLayer to toLayer
+     * (inclusive). With the full layer range this is {@link GridGraph#swapRow(int, int)}, with the span of a
+     * fake chain it is {@link GridGraph#swapTiles(int, int, int)}.
+     * Layer pairs at the border of the range are read from the matrices, layer pairs inside the range only
+     * compare the edges touching row a or b.
+     */
+    public int rowSwapDelta(int fromLayer, int toLayer, int rowA, int rowB) {
+        if (rowA == rowB) {
+            return 0;
+        }
+        int a = Math.min(rowA, rowB);
+        int b = Math.max(rowA, rowB);
+        int delta = 0;
+        if (fromLayer > 0) {
+            delta += swapDelta(byTarget[fromLayer - 1], rowCounts[fromLayer], a, b);
+        }
+        if (toLayer < bySource.length) {
+            delta += swapDelta(bySource[toLayer], rowCounts[toLayer], a, b);
+        }
+        for (int l = fromLayer; l < toLayer; l++) {
+            delta += bothSidesSwapDelta(l, a, b);
+        }
+        return delta;
+    }
+
+    /**
+     * Rows a &lt; b of one layer change places, the other layer of the pair stays as it is.
+     * Only the pairs involving the two tiles change their relative order, including all tiles in between.
+     */
+    private static int swapDelta(int[] matrix, int n, int a, int b) {
+        int delta = matrix[b * n + a] - matrix[a * n + b];
+        for (int m = a + 1; m < b; m++) {
+            delta += matrix[b * n + m] - matrix[a * n + m] + matrix[m * n + a] - matrix[m * n + b];
+        }
+        return delta;
+    }
+
+    private int bothSidesSwapDelta(int iLayer, int a, int b) {
+        int[] sourceRows = edgeSourceRows[iLayer];
+        int[] targetRows = edgeTargetRows[iLayer];
+        int[] sourceOffsets = sourceRowOffsets[iLayer];
+        int[] targetOffsets = targetRowOffsets[iLayer];
+        int[] byTargetRow = edgesByTargetRow[iLayer];
+        int delta = 0;
+        // Edges leaving row a or b
+        delta += affectedDelta(sourceRows, targetRows, sourceOffsets[a], sourceOffsets[a + 1], null, a, b);
+        delta += affectedDelta(sourceRows, targetRows, sourceOffsets[b], sourceOffsets[b + 1], null, a, b);
+        // Edges entering row a or b, which have not been visited as leaving edges
+        delta += affectedDelta(sourceRows, targetRows, targetOffsets[a], targetOffsets[a + 1], byTargetRow, a, b);
+        delta += affectedDelta(sourceRows, targetRows, targetOffsets[b], targetOffsets[b + 1], byTargetRow, a, b);
+        return delta;
+    }
+
+    private static int affectedDelta(int[] sourceRows, int[] targetRows, int from, int to, int[] indirection,
+                                     int a, int b) {
+        int delta = 0;
+        for (int k = from; k < to; k++) {
+            int i = indirection == null ? k : indirection[k];
+            if (indirection != null && (sourceRows[i] == a || sourceRows[i] == b)) {
+                continue;
+            }
+            int s1 = sourceRows[i];
+            int t1 = targetRows[i];
+            int s1Swapped = swapped(s1, a, b);
+            int t1Swapped = swapped(t1, a, b);
+            for (int j = 0; j < sourceRows.length; j++) {
+                int s2 = sourceRows[j];
+                int t2 = targetRows[j];
+                boolean affected = s2 == a || s2 == b || t2 == a || t2 == b;
+                // pairs of two affected edges are only counted from the edge with the smaller index
+                if (j == i || affected && j < i) {
+                    continue;
+                }
+                int before = crossing(s1, t1, s2, t2);
+                int after = crossing(s1Swapped, t1Swapped, swapped(s2, a, b), swapped(t2, a, b));
+                delta += after - before;
+            }
+        }
+        return delta;
+    }
+
+    private static int swapped(int row, int a, int b) {
+        return row == a ? b : row == b ? a : row;
+    }
+
+    private static int crossing(int s1, int t1, int s2, int t2) {
+        return Integer.signum(s1 - s2) * Integer.signum(t1 - t2) < 0 ? 1 : 0;
+    }
+
+    private void initPair(int iLayer, List<Tile> layer) {
+        int sourceCount = rowCounts[iLayer];
+        int targetCount = rowCounts[iLayer + 1];
+        int edgeCount = 0;
+        for (Tile tile : layer) {
+            edgeCount += tile.sourceEdges.size();
+        }
+        int[] sourceRows = new int[edgeCount];
+        int[] targetRows = new int[edgeCount];
+        int[] sourceOffsets = new int[sourceCount + 1];
+        int e = 0;
+        for (int row = 0; row < sourceCount; row++) {
+            sourceOffsets[row] = e;
+            List<Edge> sourceEdges = layer.get(row).sourceEdges;
+            int first = e;
+            for (Edge edge : sourceEdges) {
+                sourceRows[e] = row;
+                targetRows[e++] = edge.target.getRow();
+            }
+            Arrays.sort(targetRows, first, e);
+        }
+        sourceOffsets[sourceCount] = e;
+
+        // Group by target row, source rows stay ascending within each group
+        int[] targetOffsets = new int[targetCount + 1];
+        for (int i = 0; i < edgeCount; i++) {
+            targetOffsets[targetRows[i] + 1]++;
+        }
+        for (int row = 0; row < targetCount; row++) {
+            targetOffsets[row + 1] += targetOffsets[row];
+        }
+        int[] byTargetRow = new int[edgeCount];
+        int[] fill = Arrays.copyOf(targetOffsets, targetCount);
+        for (int i = 0; i < edgeCount; i++) {
+            byTargetRow[fill[targetRows[i]]++] = i;
+        }
+        int[] sourcesByTarget = new int[edgeCount];
+        for (int k = 0; k < edgeCount; k++) {
+            sourcesByTarget[k] = sourceRows[byTargetRow[k]];
+        }
+
+        bySource[iLayer] = matrix(targetRows, sourceOffsets, sourceCount);
+        byTarget[iLayer] = matrix(sourcesByTarget, targetOffsets, targetCount);
+        edgeSourceRows[iLayer] = sourceRows;
+        edgeTargetRows[iLayer] = targetRows;
+        sourceRowOffsets[iLayer] = sourceOffsets;
+        targetRowOffsets[iLayer] = targetOffsets;
+        edgesByTargetRow[iLayer] = byTargetRow;
+
+        int pairTotal = 0;
+        int[] matrix = bySource[iLayer];
+        for (int u = 0; u < sourceCount; u++) {
+            for (int v = u + 1; v < sourceCount; v++) {
+                pairTotal += matrix[u * sourceCount + v];
+            }
+        }
+        pairCrossings[iLayer] = pairTotal;
+    }
+
+    /**
+     * matrix[u][v] = number of pairs (x of group u, y of group v) with x &gt; y.
+     * @param otherRows the rows on the other side, grouped and ascending within each group
+     * @param offsets start of each group in otherRows
+     */
+    private static int[] matrix(int[] otherRows, int[] offsets, int n) {
+        int[] matrix = new int[n * n];
+        for (int u = 0; u < n; u++) {
+            if (offsets[u] == offsets[u + 1]) {
+                continue;
+            }
+            for (int v = 0; v < n; v++) {
+                if (u == v || offsets[v] == offsets[v + 1]) {
+                    continue;
+                }
+                int count = 0;
+                int y = offsets[v];
+                for (int x = offsets[u]; x < offsets[u + 1]; x++) {
+                    while (y < offsets[v + 1] && otherRows[y] < otherRows[x]) {
+                        y++;
+                    }
+                    count += y - offsets[v];
+                }
+                matrix[u * n + v] = count;
+            }
+        }
+        return matrix;
+    }
+}
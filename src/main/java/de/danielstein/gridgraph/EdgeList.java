@@ -0,0 +1,237 @@
+package de.danielstein.gridgraph;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Adjacency list of a {@link Vertex}: keeps the edges in adding order like an ArrayList, but with
+ * {@link #contains(Object)} and {@link #remove(Object)} in O(1). Every edge is contained at most once,
+ * adding it again returns false and changes nothing.
+ *
+ * Small lists are scanned, from {@link #INDEX_THRESHOLD} edges on a hash index maps every edge to its slot.
+ * Removing from a small list closes the gap at once, it is scanned anyway. In an indexed list a removed edge
+ * leaves a hole, which is closed by compacting the array once half the slots are holes, or by
+ * {@link #trimToSize()}. Only the mutators compact, so reading (also while iterating) changes nothing: iteration
+ * skips the holes, {@link #get(int)} and {@link #indexOf(Object)} count them. They are O(1) without holes but
+ * O(i) with holes, so loops over all edges should use the iterator.
+ */
+class EdgeList extends AbstractList<Edge> {
+
+    static final int INDEX_THRESHOLD = 8;
+
+    private Edge[] slots = new Edge[4];
+    // used slots, including holes
+    private int end;
+    private int size;
+    private Map<Edge, Integer> index;
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean add(Edge edge) {
+        if (slotOf(edge) >= 0) {
+            return false;
+        }
+        if (end == slots.length) {
+            if (end - size > 0) {
+                compact();
+            }
+            if (end == slots.length) {
+                slots = Arrays.copyOf(slots, slots.length * 2);
+            }
+        }
+        if (index != null) {
+            index.put(edge, end);
+        }
+        slots[end++] = edge;
+        size++;
+        modCount++;
+        if (index == null && size >= INDEX_THRESHOLD) {
+            buildIndex();
+        }
+        return true;
+    }
+
+    @Override
+    public Edge get(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Index " + i + ", size " + size);
+        }
+        if (end == size) {
+            return slots[i];
+        }
+        int slot = skipHoles(0);
+        for (int k = 0; k < i; k++) {
+            slot = skipHoles(slot + 1);
+        }
+        return slots[slot];
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return slotOf(o) >= 0;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        int slot = slotOf(o);
+        if (slot < 0 || end == size) {
+            return slot;
+        }
+        int i = 0;
+        for (int s = 0; s < slot; s++) {
+            if (slots[s] != null) {
+                i++;
+            }
+        }
+        return i;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        int slot = slotOf(o);
+        if (slot < 0) {
+            return false;
+        }
+        removeSlot(slot);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(slots, 0, end, null);
+        end = 0;
+        size = 0;
+        index = null;
+        modCount++;
+    }
+
+    @Override
+    public Iterator<Edge> iterator() {
+        return new Iterator<>() {
+            private int next = skipHoles(0);
+            private int last = -1;
+            private int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return next < end;
+            }
+
+            @Override
+            public Edge next() {
+                checkModCount();
+                if (next >= end) {
+                    throw new NoSuchElementException();
+                }
+                last = next;
+                next = skipHoles(next + 1);
+                return slots[last];
+            }
+
+            @Override
+            public void remove() {
+                checkModCount();
+                if (last < 0) {
+                    throw new IllegalStateException();
+                }
+                // no compaction while iterating, the slots stay where they are
+                removeSlotKeepingSlots(last);
+                last = -1;
+                expectedModCount = modCount;
+            }
+
+            private void checkModCount() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+            }
+        };
+    }
+
+    private int skipHoles(int slot) {
+        while (slot < end && slots[slot] == null) {
+            slot++;
+        }
+        return slot;
+    }
+
+    private int slotOf(Object o) {
+        if (index != null) {
+            Integer slot = index.get(o);
+            return slot == null ? -1 : slot;
+        }
+        for (int i = 0; i < end; i++) {
+            if (slots[i] != null && slots[i].equals(o)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void removeSlot(int slot) {
+        removeSlotKeepingSlots(slot);
+        if (index == null ? end != size : end - size > end / 2) {
+            compact();
+        }
+    }
+
+    private void removeSlotKeepingSlots(int slot) {
+        if (index != null) {
+            index.remove(slots[slot]);
+        }
+        slots[slot] = null;
+        size--;
+        modCount++;
+        if (slot == end - 1) {
+            end = skipHolesBackwards(end - 1);
+        }
+    }
+
+    private int skipHolesBackwards(int end) {
+        while (end > 0 && slots[end - 1] == null) {
+            end--;
+        }
+        return end;
+    }
+
+    /** Closes the holes, so {@link #get(int)} is O(1) again. Running iterators become invalid. */
+    void trimToSize() {
+        if (end != size) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        int target = 0;
+        for (int i = 0; i < end; i++) {
+            if (slots[i] != null) {
+                slots[target++] = slots[i];
+            }
+        }
+        Arrays.fill(slots, target, end, null);
+        end = target;
+        // the slots moved, so running iterators are invalid
+        modCount++;
+        if (index != null) {
+            buildIndex();
+        }
+    }
+
+    private void buildIndex() {
+        index = new HashMap<>(Math.max(16, size * 2));
+        for (int i = 0; i < end; i++) {
+            if (slots[i] != null) {
+                index.put(slots[i], i);
+            }
+        }
+    }
+}
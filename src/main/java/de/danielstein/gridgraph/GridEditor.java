@@ -0,0 +1,307 @@
+package de.danielstein.gridgraph;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Incremental edge changes on a prepared {@link GridGraph} (@see {@link GridGraph#insertEdge(Object, Object)}).
+ *
+ * In a prepared graph all long edges into a domain vertex share one chain of fake vertices in the row of that
+ * vertex, reaching back to the layer after its lowest predecessor. An edit therefore works on target vertices:
+ * 1. the layers of the target and its descendants are recalculated in the order of their old layers, stopping
+ * at every vertex whose layer stays the same,
+ * 2. every target whose incoming connections change (the target of the edit, every vertex with a new layer and
+ * its successors) is detached from its predecessors and its fake chain is removed,
+ * 3. each of them is placed again: in its current row (the row before the move, if its layer changed), if the
+ * cells of the new chain are free there, otherwise in the first row free on all layers of the chain, and the
+ * chain is rebuilt.
+ * The work depends on the number of changed vertices and their edges, not on the size of the graph.
+ */
+class GridEditor<T> {
+
+    private final GridGraph<T> graph;
+
+    // predecessors of the edited target, with the edit applied
+    private Vertex editedTarget;
+    private Set<Vertex> editedPredecessors;
+
+    GridEditor(GridGraph<T> graph) {
+        if (graph.layers.isEmpty()) {
+            throw new IllegalStateException("Graph is not prepared, use addEdge");
+        }
+        this.graph = graph;
+    }
+
+    void insert(T sourceObj, T targetObj) {
+        Vertex source = graph.getVertex(sourceObj);
+        Vertex target = graph.getVertex(targetObj);
+        if (source != null && source == target) {
+            throw new IllegalArgumentException("Edge from " + sourceObj + " to itself is not possible");
+        }
+        if (source != null && target != null) {
+            if (domainSuccessors(source).contains(target)) {
+                return;
+            }
+            if (isReachable(target, source)) {
+                throw new IllegalArgumentException("Edge from " + sourceObj + " to " + targetObj
+                        + " would create a cycle");
+            }
+        }
+        Set<Vertex> unplaced = new HashSet<>();
+        if (source == null) {
+            source = newDomainVertex(sourceObj, unplaced);
+        }
+        if (target == null) {
+            target = newDomainVertex(targetObj, unplaced);
+        }
+        Set<Vertex> predecessors = domainPredecessors(target);
+        predecessors.add(source);
+        edit(target, predecessors, unplaced);
+    }
+
+    void delete(T sourceObj, T targetObj) {
+        Vertex source = graph.getVertex(sourceObj);
+        Vertex target = graph.getVertex(targetObj);
+        if (source == null || target == null) {
+            return;
+        }
+        Set<Vertex> predecessors = domainPredecessors(target);
+        if (!predecessors.remove(source)) {
+            return;
+        }
+        edit(target, predecessors, new HashSet<>());
+    }
+
+    private Vertex newDomainVertex(T domainObj, Set<Vertex> unplaced) {
+        Vertex vertex = graph.newVertex(domainObj);
+        graph.register(domainObj, vertex);
+        unplaced.add(vertex);
+        return vertex;
+    }
+
+    private void edit(Vertex target, Set<Vertex> predecessors, Set<Vertex> unplaced) {
+        editedTarget = target;
+        editedPredecessors = predecessors;
+
+        Map<Vertex, Integer> newLayers = relayer(target, unplaced);
+
+        // targets whose incoming connections change, with their predecessors before anything is detached
+        Set<Vertex> dirty = new LinkedHashSet<>();
+        dirty.add(target);
+        dirty.addAll(unplaced);
+        for (Vertex moved : newLayers.keySet()) {
+            dirty.add(moved);
+            dirty.addAll(domainSuccessors(moved));
+        }
+        Map<Vertex, Set<Vertex>> dirtyPredecessors = new HashMap<>();
+        for (Vertex vertex : dirty) {
+            dirtyPredecessors.put(vertex, predecessors(vertex));
+        }
+
+        for (Vertex vertex : dirty) {
+            detachIncoming(vertex);
+        }
+        for (Vertex moved : newLayers.keySet()) {
+            if (!unplaced.contains(moved)) {
+                graph.set(moved.getLayer(), moved.getRow(), null);
+            }
+        }
+
+        int layerCount = graph.layers.size();
+        for (int layer : newLayers.values()) {
+            layerCount = Math.max(layerCount, layer + 1);
+        }
+        int rowCount = graph.layers.get(0).size();
+        for (int l = 0; l < layerCount; l++) {
+            graph.ensureLayerPresent(l);
+            graph.ensureLayerHasAtLeast(l, rowCount);
+        }
+
+        // lower layers first, so rows are taken in a stable order
+        List<Vertex> placing = new ArrayList<>(dirty);
+        placing.sort(Comparator.comparingInt(v -> layerOf(v, newLayers)));
+        for (Vertex vertex : placing) {
+            boolean placed = !unplaced.contains(vertex) && !newLayers.containsKey(vertex);
+            attach(vertex, layerOf(vertex, newLayers), placed, dirtyPredecessors.get(vertex), newLayers);
+        }
+        removeTrailingEmptyLayers();
+    }
+
+    /**
+     * Recalculates the layer of the target and, if it changes, of its descendants. Every vertex is handled after
+     * all of its predecessors, because they are processed ordered by their old layer.
+     * @return the new layer of every vertex whose layer changed or which was not placed yet
+     */
+    private Map<Vertex, Integer> relayer(Vertex target, Set<Vertex> unplaced) {
+        Map<Vertex, Integer> newLayers = new HashMap<>();
+        for (Vertex vertex : unplaced) {
+            // new sources start without predecessors on layer 0, a new target is calculated below
+            newLayers.put(vertex, 0);
+        }
+        PriorityQueue<Vertex> queue = new PriorityQueue<>(Comparator.comparingInt(
+                (Vertex v) -> unplaced.contains(v) ? -1 : v.getLayer()));
+        Set<Vertex> queued = new HashSet<>();
+        queue.add(target);
+        queued.add(target);
+        while (!queue.isEmpty()) {
+            Vertex vertex = queue.poll();
+            int layer = 0;
+            for (Vertex predecessor : predecessors(vertex)) {
+                layer = Math.max(layer, layerOf(predecessor, newLayers) + 1);
+            }
+            if (!unplaced.contains(vertex) && layer == vertex.getLayer()) {
+                continue;
+            }
+            newLayers.put(vertex, layer);
+            for (Vertex successor : domainSuccessors(vertex)) {
+                if (queued.add(successor)) {
+                    queue.add(successor);
+                }
+            }
+        }
+        return newLayers;
+    }
+
+    /** Removes all edges into the vertex and its fake chain, the remaining edge lists are left without holes */
+    private void detachIncoming(Vertex vertex) {
+        for (Edge edge : new ArrayList<>(vertex.targetEdges)) {
+            Vertex source = edge.source;
+            graph.removeEdge(source, vertex);
+            if (source.isFake()) {
+                detachIncoming(source);
+                graph.set(source.getLayer(), source.getRow(), null);
+            } else {
+                source.trimEdges();
+            }
+        }
+        vertex.trimEdges();
+    }
+
+    /**
+     * Places the vertex on its layer with a new fake chain from its predecessors more than one layer before,
+     * and connects all predecessors.
+     * @param placed true if the vertex is still in its cell of the grid
+     */
+    private void attach(Vertex vertex, int layer, boolean placed, Set<Vertex> predecessors,
+                        Map<Vertex, Integer> newLayers) {
+        int chainStart = layer;
+        for (Vertex predecessor : predecessors) {
+            chainStart = Math.min(chainStart, layerOf(predecessor, newLayers) + 1);
+        }
+        // a moved vertex still knows its old row, a new one has row 0
+        int rowCount = graph.layers.get(0).size();
+        int row = vertex.getRow() < rowCount && isFree(placed ? vertex : null, chainStart, layer, vertex.getRow())
+                ? vertex.getRow() : -1;
+        for (int r = 0; row < 0 && r < rowCount; r++) {
+            if (isFree(placed ? vertex : null, chainStart, layer, r)) {
+                row = r;
+            }
+        }
+        if (row < 0) {
+            row = rowCount;
+            for (int l = 0; l < graph.layers.size(); l++) {
+                graph.ensureLayerHasAtLeast(l, row + 1);
+            }
+        }
+        if (placed && row != vertex.getRow()) {
+            graph.set(layer, vertex.getRow(), null);
+        }
+        graph.set(layer, row, vertex);
+
+        // chain[l - chainStart] is the fake on layer l, leading to the vertex
+        Vertex[] chain = new Vertex[layer - chainStart];
+        Vertex next = vertex;
+        for (int l = layer - 1; l >= chainStart; l--) {
+            Vertex fake = graph.newVertex(null);
+            graph.set(l, row, fake);
+            graph.addEdge(fake, next);
+            chain[l - chainStart] = fake;
+            next = fake;
+        }
+        for (Vertex predecessor : predecessors) {
+            int predecessorLayer = layerOf(predecessor, newLayers);
+            graph.addEdge(predecessor, predecessorLayer + 1 == layer ? vertex : chain[predecessorLayer + 1 - chainStart]);
+        }
+    }
+
+    /** @return true if the cells of the layers fromLayer..toLayer in the row are spacers or the vertex itself */
+    private boolean isFree(Vertex vertex, int fromLayer, int toLayer, int row) {
+        for (int l = fromLayer; l <= toLayer; l++) {
+            Tile tile = graph.getTile(l, row);
+            if (!tile.isSpacer() && tile != vertex) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void removeTrailingEmptyLayers() {
+        List<List<Tile>> layers = graph.layers;
+        while (layers.size() > 1 && layers.get(layers.size() - 1).stream().allMatch(Tile::isSpacer)) {
+            layers.remove(layers.size() - 1);
+        }
+    }
+
+    private static int layerOf(Vertex vertex, Map<Vertex, Integer> newLayers) {
+        return newLayers.getOrDefault(vertex, vertex.getLayer());
+    }
+
+    /** Domain predecessors with the edit applied */
+    private Set<Vertex> predecessors(Vertex vertex) {
+        return vertex == editedTarget ? editedPredecessors : domainPredecessors(vertex);
+    }
+
+    /** @return the domain vertices with an edge to the given one, directly or through fakes */
+    private static Set<Vertex> domainPredecessors(Vertex vertex) {
+        Set<Vertex> predecessors = new LinkedHashSet<>();
+        collectPredecessors(vertex, predecessors);
+        return predecessors;
+    }
+
+    private static void collectPredecessors(Vertex vertex, Set<Vertex> predecessors) {
+        for (Edge edge : vertex.targetEdges) {
+            if (edge.source.isFake()) {
+                collectPredecessors(edge.source, predecessors);
+            } else {
+                predecessors.add(edge.source);
+            }
+        }
+    }
+
+    /** @return the domain vertices the given one has an edge to, directly or through fakes */
+    private static Set<Vertex> domainSuccessors(Vertex vertex) {
+        Set<Vertex> successors = new LinkedHashSet<>();
+        for (Edge edge : vertex.sourceEdges) {
+            Vertex target = edge.target;
+            // a fake has exactly one outgoing edge
+            while (target.isFake()) {
+                target = target.sourceEdges.get(0).target;
+            }
+            successors.add(target);
+        }
+        return successors;
+    }
+
+    private static boolean isReachable(Vertex from, Vertex to) {
+        Set<Vertex> visited = new HashSet<>();
+        List<Vertex> pending = new ArrayList<>();
+        pending.add(from);
+        while (!pending.isEmpty()) {
+            Vertex vertex = pending.remove(pending.size() - 1);
+            if (vertex == to) {
+                return true;
+            }
+            if (visited.add(vertex)) {
+                pending.addAll(domainSuccessors(vertex));
+            }
+        }
+        return false;
+    }
+}
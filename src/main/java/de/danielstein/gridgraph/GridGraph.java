@@ -41,6 +41,18 @@ public class GridGraph<T>  implements  Cloneable{
 
     List<List<Tile>> layers = new ArrayList<>();
 
+    // all edges in adding order, kept in step with the edge lists of the vertices by addEdge / removeEdge
+    private final Set<Edge> edges = new LinkedHashSet<>();
+    // edges grouped by the layer of their source, built on demand, @see #getEdgesFromLayer(int)
+    private List<List<Edge>> edgesBySourceLayer;
+
+    // structural changes: edges added or removed, tiles set, rows or layers added, @see #modCount()
+    private int modCount;
+
+    // Zobrist fingerprint of the tile positions, @see #fingerprint()
+    private long fingerprint;
+    private boolean fingerprintValid;
+
     public GridGraph () {
         this(0);
     }
@@ -64,7 +76,16 @@ public class GridGraph<T>  implements  Cloneable{
      * @return this
      */
     public GridGraph<T> prepare() {
-        return layering().addFakeVertexes().arrangeGridAndAlignFakesInRows();
+        layering().addFakeVertexes().arrangeGridAndAlignFakesInRows();
+        // replacing the long edges left holes in the edge lists, the neighbours by index are O(1) without
+        for (List<Tile> layer : layers) {
+            for (Tile tile : layer) {
+                if (!tile.isSpacer()) {
+                    ((Vertex) tile).trimEdges();
+                }
+            }
+        }
+        return this;
     }
 
     public GridGraph<T> addEdge(T source , T target) {
@@ -82,6 +103,29 @@ public class GridGraph<T>  implements  Cloneable{
         return  addEdge(sourceVertex,targetVertex);
     }
 
+    /**
+     * Adds an edge to an already prepared graph, without preparing it again: only the target and the descendants
+     * whose layer changes are moved, together with the fake chains leading to them and to their successors.
+     * All other tiles keep their position. Rows which become empty are not removed.
+     * Unknown domain objects are added to the graph.
+     * @throws IllegalArgumentException if the edge would create a cycle
+     * @throws IllegalStateException if the graph is not prepared
+     */
+    public GridGraph<T> insertEdge(T source, T target) {
+        new GridEditor<>(this).insert(source, target);
+        return this;
+    }
+
+    /**
+     * Removes an edge from an already prepared graph, the counterpart of {@link #insertEdge(Object, Object)}.
+     * Nothing happens, if there is no such edge. The domain objects stay in the graph, even without edges.
+     * @throws IllegalStateException if the graph is not prepared
+     */
+    public GridGraph<T> deleteEdge(T source, T target) {
+        new GridEditor<>(this).delete(source, target);
+        return this;
+    }
+
     /**
      * Distributes all Vertices to their target layer.
      * the layer is determined by the max layer of its incoming vertexes plus one
@@ -95,10 +139,10 @@ public class GridGraph<T>  implements  Cloneable{
      */
     public GridGraph<T> layering() {
         layers.clear();
-        domainObj2Vertex.values().forEach(v -> {
-            int layer = determineLayer(v);
-            add(layer,v);
-        });
+        fingerprintValid = false;
+        modCount++;
+        Map<Vertex, Integer> vertex2Layer = determineLayers();
+        domainObj2Vertex.values().forEach(v -> add(vertex2Layer.get(v), v));
         return this;
     }
 
@@ -109,30 +153,21 @@ public class GridGraph<T>  implements  Cloneable{
      * @return
      */
     public GridGraph<T> addFakeVertexes() {
-        List<Edge> sourceEdges = getSourceEdges();
-        sourceEdges.forEach( currEdge -> {
-                    Vertex source = currEdge.source;
-                    Vertex target = currEdge.target;
-                    int sourceLayer = source.getLayer();
-                    int targetLayer = target.getLayer();
-                    if(targetLayer - sourceLayer == 1) {
-                        return; // Vertexes are layer neighbours.
+        // by layer and row of the source like the tiles, this order decides the ids and rows of the fakes.
+        // The fakes are appended to the following layers, the tiles of the current one stay where they are.
+        List<Edge> multiLayerEdges = new ArrayList<>();
+        for (int l = 0; l < layers.size(); l++) {
+            List<Tile> layer = layers.get(l);
+            for (int row = 0; row < layer.size(); row++) {
+                multiLayerEdges.clear();
+                for (Edge edge : layer.get(row).sourceEdges) {
+                    if (edge.target.getLayer() - edge.source.getLayer() > 1) {
+                        multiLayerEdges.add(edge);
                     }
-                    // remove multilayer connection for replacement
-                    currEdge.source.sourceEdges.remove(currEdge);
-                    currEdge.target.targetEdges.remove(currEdge);
-
-                    for (int fi = sourceLayer+1; fi < targetLayer ; fi++) {
-                        target = newVertex(null);
-                        add(fi,target);
-                        addEdge(source,target);
-                        source = target;
-                    }
-                    // Make Connection from the last fakevertex to the domain Vertex of the
-                    // replaced connection
-                    addEdge(source,currEdge.target);
                 }
-        );
+                multiLayerEdges.forEach(this::replaceByFakes);
+            }
+        }
         mergeFakeVertices();
 
         Integer maxLayerSize = layers.stream().map(Collection::size).max(Integer::compareTo).get();
@@ -158,8 +193,6 @@ public class GridGraph<T>  implements  Cloneable{
             graphClone.layers.add(currLayerClone);
         }
 
-        List<Edge> edges = getSourceEdges();
-        edges.addAll(getTargetEdges());
         for (Edge edge: edges) {
             Vertex source = edge.getSource();
             Vertex target = edge.getTarget();
@@ -167,54 +200,80 @@ public class GridGraph<T>  implements  Cloneable{
             Vertex targetClone = (Vertex) graphClone.layers.get(target.getLayer()).get(target.getRow());
             graphClone.addEdge(sourceClone,targetClone);
         }
-
+        graphClone.fingerprint = fingerprint;
+        graphClone.fingerprintValid = fingerprintValid;
         return graphClone;
     }
 
     /**
      * Arranges the grid to fit all domain objects and their connections, ensuring that all recursively incoming
      * fake vertices are placed in the same row. This method performs the following steps:
-     * 1. Creates a grid with the correct size.
-     * 2. Transfers all domain objects and their incoming connections, ensuring connections are on the same row.
-     * 3. Deletes rows from layers that contain only spacers.
+     * 1. Places every domain object in adding order in the first row which is free on all layers of it and its
+     * incoming fake chain (@see {@link RowAllocator}).
+     * 2. Deletes rows that contain only spacers, in a single pass while building the new grid.
      *
      * @return A GridGraph with domain objects distributed and fake vertices aligned in rows.
      */
     public GridGraph<T> arrangeGridAndAlignFakesInRows() {
-        // Original layers are saved in 'originalLayers' and 'layers' is re-initialized.
-        List<List<Tile>> originalLayers = layers;
-        layers = new ArrayList<>();
-
-        // Ensure each layer from the original has a corresponding layer in the new grid.
-        IntStream.range(0, originalLayers.size()).forEach(this::ensureLayerPresent);
-
-        // Get the number of rows from the first layer.
-        int numberOfRows = originalLayers.get(0).size();
-
-        // Ensure that each layer has at least 'numberOfRows' rows.
-        IntStream.range(0, originalLayers.size()).forEach(i -> ensureLayerHasAtLeast(i, numberOfRows));
-
-        // Add each domain object to a row, incrementing row index until successful.
-        for (Map.Entry<T, Vertex> entry : domainObj2Vertex.entrySet()) {
-            int rowIndex = 0;
-            while (!placeAndAlignFakes(rowIndex, entry.getValue())) {
-                rowIndex++;
+        int layerCount = layers.size();
+        RowAllocator allocator = new RowAllocator(layerCount, layers.get(0).size());
+
+        // Every domain object goes into the first row which is free on its layer and on the layers of its
+        // incoming fake chain.
+        Map<Vertex, Integer> vertex2Row = new IdentityHashMap<>();
+        for (Vertex vertex : domainObj2Vertex.values()) {
+            int chainStart = vertex.getLayer();
+            for (Vertex fake = incomingFake(vertex); fake != null; fake = incomingFake(fake)) {
+                chainStart = fake.getLayer();
+            }
+            int row = allocator.firstFreeRow(chainStart, vertex.getLayer());
+            allocator.occupy(chainStart, vertex.getLayer(), row);
+            for (Vertex v = vertex; v != null; v = incomingFake(v)) {
+                vertex2Row.put(v, row);
             }
         }
 
-        // Remove rows that consist solely of spacer tiles.
-        int rowCount = layers.get(0).size();
-        IntStream.range(0, rowCount)
-                .filter(rowIndex -> getRow(rowIndex).stream().allMatch(Tile::isSpacer))
-                .boxed()
-                .sorted(Comparator.reverseOrder())
-                .forEach(rowIndex -> {
-                    layers.forEach(layer -> layer.remove(rowIndex.intValue()));
-                });
-
+        // Rebuild the grid without the rows which consist solely of spacer tiles.
+        int[] newRow = allocator.compactRows();
+        int rowCount = 0;
+        for (int row : newRow) {
+            rowCount = Math.max(rowCount, row + 1);
+        }
+        List<List<Tile>> arranged = new ArrayList<>(layerCount);
+        for (int l = 0; l < layerCount; l++) {
+            Tile[] cells = new Tile[rowCount];
+            for (Tile tile : layers.get(l)) {
+                Integer row = vertex2Row.get(tile);
+                if (row != null) {
+                    cells[newRow[row]] = tile;
+                }
+            }
+            List<Tile> layer = new ArrayList<>(rowCount);
+            for (int row = 0; row < rowCount; row++) {
+                Tile tile = cells[row] != null ? cells[row] : new Tile();
+                tile.setLayer(l);
+                tile.setRow(row);
+                layer.add(tile);
+            }
+            arranged.add(layer);
+        }
+        layers = arranged;
+        fingerprintValid = false;
+        modCount++;
+        edgesBySourceLayer = null;
         return this;
     }
 
+    /** @return the first fake source of an incoming edge, each vertex has at most one after merging */
+    private static Vertex incomingFake(Vertex vertex) {
+        for (Edge edge : vertex.targetEdges) {
+            if (edge.source.isFake()) {
+                return edge.source;
+            }
+        }
+        return null;
+    }
+
 
 
     /**
@@ -253,6 +312,10 @@ public class GridGraph<T>  implements  Cloneable{
 
     public boolean swapTiles(int iLayer, int iRowFrom, int iRowTo) {
         Tile tileFrom = getTile(iLayer,iRowFrom);
+        // A fake is only moved together with the vertex it leads to
+        if (tileFrom.isFake()) {
+            return false;
+        }
         return swapTiles(tileFrom,iRowTo);
     }
 
@@ -260,10 +323,14 @@ public class GridGraph<T>  implements  Cloneable{
         IntStream.range(0, layers.size()).forEach(i -> swap(i, iFrom,iTo));
     }
 
+    /**
+     * All edges involved in at least one crossing. Compares every pair of edges per layer, so use it for
+     * diagnostics and {@link #countCrossings()} for fitness calculations.
+     */
     public Set<Edge> getCrossingEdges() {
         Set<Edge> retVal = new HashSet<>();
-        for (List<Tile> layer : layers) {
-            List<Edge> sourceEdges = layer.stream().flatMap(v -> v.sourceEdges.stream()).collect(Collectors.toList());
+        for (int l = 0; l < layers.size(); l++) {
+            List<Edge> sourceEdges = getEdgesFromLayer(l);
             // Check all distinct edge Combination for intersection
             // for example:  4 Edges Intersection check = [1,2],[1,3],[1,4],[2,3],[2,4],[3,4]
             // Wenn es nur eine ausgehende Edge gibt, kann es kein Crossing geben
@@ -284,6 +351,48 @@ public class GridGraph<T>  implements  Cloneable{
         return  retVal;
     }
 
+    /**
+     * Number of pairwise edge crossings in the grid. In contrast to {@link #getCrossingEdges()} every crossing
+     * is counted (an edge crossing two others counts twice) and no collections are built.
+     * Every edge has to span exactly one layer, which is the case after {@link #addFakeVertexes()}.
+     */
+    public int countCrossings() {
+        int crossings = 0;
+        for (int i = 0; i < layers.size() - 1; i++) {
+            crossings += countCrossings(i);
+        }
+        return crossings;
+    }
+
+    /**
+     * Lower bound of the crossings of this graph in any row order, @see {@link CompactGrid#crossingLowerBound()}.
+     * The graph has to be prepared.
+     */
+    public int crossingLowerBound() {
+        return new CompactGrid(this).crossingLowerBound();
+    }
+
+    /**
+     * Number of edge crossings between the given layer and its successor in O(E log R).
+     */
+    public int countCrossings(int iLayer) {
+        List<Tile> layer = layers.get(iLayer);
+        CrossingCounter counter = CrossingCounter.forCurrentThread();
+        counter.reset(layers.get(iLayer + 1).size());
+        int crossings = 0;
+        for (int row = 0; row < layer.size(); row++) {
+            // iterators, positional access is O(i) in an edge list with holes
+            List<Edge> sourceEdges = layer.get(row).sourceEdges;
+            for (Edge edge : sourceEdges) {
+                crossings += counter.greater(edge.target.getRow());
+            }
+            for (Edge edge : sourceEdges) {
+                counter.insert(edge.target.getRow());
+            }
+        }
+        return crossings;
+    }
+
     public Vertex getVertex(T domainobj) {
         if(domainObj2Vertex.isEmpty()) {
            domainObj2Vertex = (Map<T, Vertex>) layers.stream()
@@ -312,6 +421,42 @@ public class GridGraph<T>  implements  Cloneable{
         return swapTiles(end.getLayer(), end.getRow(), 0);
     }
 
+    /**
+     * 64 bit fingerprint of the layout: the XOR of a pseudo random key per (vertex, layer, row), spacers have none.
+     * Graphs with the same vertices (e.g. clones) at the same positions have the same fingerprint, so unique
+     * layouts can be found without rendering them. Computed once, then updated in O(1) by every
+     * {@link #swap(int, int, int)}.
+     */
+    public long fingerprint() {
+        if (!fingerprintValid) {
+            long f = 0;
+            for (int l = 0; l < layers.size(); l++) {
+                List<Tile> layer = layers.get(l);
+                for (int row = 0; row < layer.size(); row++) {
+                    f ^= zobristKey(layer.get(row), l, row);
+                }
+            }
+            fingerprint = f;
+            fingerprintValid = true;
+        }
+        return fingerprint;
+    }
+
+    private static long zobristKey(Tile tile, int layer, int row) {
+        if (tile.isSpacer()) {
+            return 0;
+        }
+        return mix(mix(mix(((Vertex) tile).id) ^ layer) ^ row);
+    }
+
+    /** splitmix64 finalizer */
+    private static long mix(long z) {
+        z += 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
     public List<List<Tile>> getLayers() {
         return layers;
     }
@@ -359,53 +504,36 @@ public class GridGraph<T>  implements  Cloneable{
     }
 
 
-    /**
-     * Attempts to place the given vertex and all its recursively incoming fake vertices in the specified row.
-     * If the tile at the specified layer and row is a spacer, the vertex can be placed.
-     * If the vertex has incoming fake edges, the method recursively attempts to place these vertices first.
-     * If the vertex and its dependencies are successfully placed, the method sets the vertex in the grid.
-     *
-     * @param row The row index where the vertex and its fake vertices should be placed.
-     * @param vertex The vertex to be placed.
-     * @return true if the vertex and all its recursively incoming fakes were successfully placed, false otherwise.
-     */
-    private boolean placeAndAlignFakes(int row, Vertex vertex) {
-        boolean canPlace = false;
-
-        // Check if the tile at the specified layer and row is a spacer.
-        Tile tile = getTile(vertex.getLayer(), row);
-        if (tile.isSpacer()) {
-            canPlace = true;
-        }
-
-        // If canPlace is true, check for incoming fake vertices and place them recursively.
-        Optional<Vertex> incomingFake = vertex.targetEdges.stream()
-                .map(Edge::getSource)
-                .filter(Vertex::isFake)
-                .findAny();
-        if (canPlace && incomingFake.isPresent()) {
-            canPlace &= placeAndAlignFakes(row, incomingFake.get());
-            if (!canPlace) {
-                return canPlace;
+    private void mergeFakeVertices() {
+        // in the order of the fakes by layer and row
+        Set<Vertex> vertexWithFakesPointingTo = new LinkedHashSet<>();
+        for (List<Tile> layer : layers) {
+            for (Tile tile : layer) {
+                if (tile.isFake()) {
+                    for (Edge edge : tile.sourceEdges) {
+                        if (!edge.target.isFake()) {
+                            vertexWithFakesPointingTo.add(edge.target);
+                        }
+                    }
+                }
             }
         }
-
-        // If canPlace is still true, set the vertex in the grid.
-        if (canPlace) {
-            set(vertex.getLayer(), row, vertex);
-        }
-
-        return canPlace;
+        vertexWithFakesPointingTo.forEach(this::mergeFakeVertices);
     }
 
-
-
-
-    private void mergeFakeVertices() {
-        List<Vertex> vertexWithFakesPointingTo =
-                getSourceEdges().stream().filter(e -> e.source.isFake() && !e.target.isFake())
-                        .map(e -> e.target).distinct().collect(Collectors.toList());
-        vertexWithFakesPointingTo.forEach(this::mergeFakeVertices);
+    /** Replaces an edge spanning several layers by a chain of fakes on the layers between */
+    private void replaceByFakes(Edge edge) {
+        // remove multilayer connection for replacement
+        removeEdge(edge.source, edge.target);
+        Vertex source = edge.source;
+        for (int fi = edge.source.getLayer() + 1; fi < edge.target.getLayer(); fi++) {
+            Vertex fake = newVertex(null);
+            add(fi, fake);
+            addEdge(source, fake);
+            source = fake;
+        }
+        // Make Connection from the last fakevertex to the domain Vertex of the replaced connection
+        addEdge(source, edge.target);
     }
 
     /**
@@ -463,7 +591,7 @@ public class GridGraph<T>  implements  Cloneable{
     }
 
 
-       private void ensureLayerPresent(int iLayer) {
+    void ensureLayerPresent(int iLayer) {
         while (layers.size() <= iLayer) {
             layers.add(new ArrayList<>());
         }
@@ -477,11 +605,17 @@ public class GridGraph<T>  implements  Cloneable{
      * @param tile Wenn null, dann wird ein Tile als Platzhalter erzeugt und gesetzt
      * @return null, wenn vorher nichts war an der Position oder das zuvor gesetzte Tile
      */
-    private Tile set(int iLayer, int row, Tile tile) {
+    Tile set(int iLayer, int row, Tile tile) {
+        fingerprintValid = false;
+        modCount++;
         List<Tile> layer = layers.get(iLayer);
         if (tile == null) {
             tile = new Tile();
         }
+        // the grouping by source layer only changes, if a vertex with outgoing edges changes its layer
+        if (tile.getLayer() != iLayer && !tile.sourceEdges.isEmpty()) {
+            edgesBySourceLayer = null;
+        }
         tile.setLayer(iLayer);
         tile.setRow(row);
         if (row == layer.size()) {
@@ -504,12 +638,25 @@ public class GridGraph<T>  implements  Cloneable{
         tileTo.setRow(iFrom);
         layer.set(iTo,tileFrom);
         layer.set(iFrom,tileTo);
+        if (fingerprintValid) {
+            fingerprint ^= zobristKey(tileFrom, iLayer, iFrom) ^ zobristKey(tileFrom, iLayer, iTo)
+                    ^ zobristKey(tileTo, iLayer, iTo) ^ zobristKey(tileTo, iLayer, iFrom);
+        }
     }
 
     private void addRowToAllLayers() {
         for (List<Tile> layer : layers) {
             layer.add(new Tile());
         }
+        modCount++;
+    }
+
+    /**
+     * Counter of the structural changes: edges added or removed, tiles set into a cell, rows or layers added.
+     * Swaps don't count, they change the {@link #fingerprint()}. Caches derived from the graph compare both.
+     */
+    int modCount() {
+        return modCount;
     }
 
 
@@ -518,60 +665,105 @@ public class GridGraph<T>  implements  Cloneable{
         set(iLayer,layers.get(iLayer).size(),tile);
     }
 
-    private int determineLayer(Vertex v) {
-        return determineLayer(v,0);
+    /**
+     * Longest path layering in O(V+E) (Kahn): Every vertex is visited once all of its predecessors have been
+     * visited, so its layer (max layer of the predecessors plus one) is final at that point and cached in
+     * the returned map. Vertices without incoming edges are on layer 0.
+     * @return the layer of every vertex in {@link #domainObj2Vertex}
+     * @throws IllegalStateException if the graph contains a cycle
+     */
+    private Map<Vertex, Integer> determineLayers() {
+        Map<Vertex, Integer> vertex2Layer = new HashMap<>(domainObj2Vertex.size() * 2);
+        Map<Vertex, Integer> pendingIncoming = new HashMap<>(domainObj2Vertex.size() * 2);
+        Deque<Vertex> ready = new ArrayDeque<>();
+        for (Vertex v : domainObj2Vertex.values()) {
+            vertex2Layer.put(v, 0);
+            pendingIncoming.put(v, v.targetEdges.size());
+            if (v.targetEdges.isEmpty()) {
+                ready.add(v);
+            }
+        }
+        int visited = 0;
+        while (!ready.isEmpty()) {
+            Vertex v = ready.poll();
+            visited++;
+            int nextLayer = vertex2Layer.get(v) + 1;
+            for (Edge sourceEdge : v.sourceEdges) {
+                Vertex target = sourceEdge.target;
+                vertex2Layer.merge(target, nextLayer, Math::max);
+                if (pendingIncoming.merge(target, -1, Integer::sum) == 0) {
+                    ready.add(target);
+                }
+            }
+        }
+        if (visited != domainObj2Vertex.size()) {
+            throw new IllegalStateException("Graph contains a cycle, layering not possible");
+        }
+        return vertex2Layer;
+    }
+
+    /** Number of edges, fake edges included, in O(1) */
+    public int getEdgeCount() {
+        return edges.size();
+    }
+
+    /** Read only view of all edges in adding order */
+    public Collection<Edge> getEdges() {
+        return Collections.unmodifiableCollection(edges);
     }
 
     /**
-     * Determines
-     * @param v
-     * @param cnt
-     * @return
-     * todo: method name 
+     * Read only list of the edges whose source is on the given layer, in adding order. The grouping is kept until
+     * edges are added or removed or vertices change their layer.
      */
-    private int determineLayer(Vertex v, int cnt) {
-        if(v.targetEdges.isEmpty()) {
-            return cnt;
-        }
-        cnt++;
-        int recVal = cnt;
-        for (Edge targetEdge: v.targetEdges){
-            cnt = Math.max(cnt, determineLayer(targetEdge.source,recVal));
+    public List<Edge> getEdgesFromLayer(int iLayer) {
+        if (edgesBySourceLayer == null) {
+            List<List<Edge>> byLayer = new ArrayList<>(layers.size());
+            for (int i = 0; i < layers.size(); i++) {
+                byLayer.add(new ArrayList<>());
+            }
+            for (Edge edge : edges) {
+                byLayer.get(edge.source.getLayer()).add(edge);
+            }
+            byLayer.replaceAll(Collections::unmodifiableList);
+            edgesBySourceLayer = byLayer;
         }
-        return cnt;
+        return edgesBySourceLayer.get(iLayer);
     }
 
+    /** @return a new list of all edges, ordered by layer and row of their source */
     public List<Edge> getSourceEdges() {
         return layers.stream().flatMap(Collection::stream).flatMap (t -> t.sourceEdges.stream()).collect(Collectors.toList());
     }
 
-    private List<Edge> getTargetEdges() {
-        return layers.stream().flatMap(Collection::stream).flatMap (t -> t.targetEdges.stream()).collect(Collectors.toList());
-    }
 
     //--- UtiMethods ---//
 
     /** Fügt eine Edhe zwischen Source und Target ein, sofern sie noch nicht existiert */
-     private GridGraph<T> addEdge(Vertex source , Vertex target) {
+     GridGraph<T> addEdge(Vertex source , Vertex target) {
         Edge edge = new Edge(source,target);
-        if(!source.sourceEdges.contains(edge)) {
+        if (edges.add(edge)) {
             source.sourceEdges.add(edge);
-        }
-        if(!target.targetEdges.contains(edge)) {
             target.targetEdges.add(edge);
+            edgesBySourceLayer = null;
+            modCount++;
         }
         return this;
     }
 
-    private GridGraph<T> removeEdge(Vertex source , Vertex target) {
-        List<Edge> edges2Remove = source.sourceEdges.stream().filter(e -> e.target.equals(target)).collect(Collectors.toList());
-        source.sourceEdges.removeAll(edges2Remove);
-        target.targetEdges.removeAll(edges2Remove);
+    GridGraph<T> removeEdge(Vertex source , Vertex target) {
+        Edge edge = new Edge(source, target);
+        if (edges.remove(edge)) {
+            source.sourceEdges.remove(edge);
+            target.targetEdges.remove(edge);
+            edgesBySourceLayer = null;
+            modCount++;
+        }
         return this;
     }
 
 
-    private void ensureLayerHasAtLeast(int iLayer, int numRows) {
+    void ensureLayerHasAtLeast(int iLayer, int numRows) {
         List<Tile> layer = layers.get(iLayer) ;
             int rowsNeeded = numRows - layer.size();
             for (int i = rowsNeeded; i > 0; i--) {
@@ -580,7 +772,17 @@ public class GridGraph<T>  implements  Cloneable{
 
     }
 
-    private Vertex newVertex(T obj) {
+    /** The vertices of the domain objects in adding order */
+    Collection<Vertex> getDomainVertices() {
+        return domainObj2Vertex.values();
+    }
+
+    /** Makes the vertex of a domain object known, e.g. when the grid was built from outside. */
+    void register(T domainObj, Vertex vertex) {
+        domainObj2Vertex.put(domainObj, vertex);
+    }
+
+    Vertex newVertex(T obj) {
           return new Vertex(vertexSequence.incrementAndGet(), obj);
       }
 }
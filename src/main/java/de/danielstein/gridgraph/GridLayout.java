@@ -0,0 +1,254 @@
+package de.danielstein.gridgraph;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A layout individual: only the row permutation of every layer, the vertices and edges are referenced from a
+ * shared, read only {@link CompactGrid}. Copying a layout is a single array copy, a {@link GridGraph} is only
+ * needed for the final result (@see {@link #toGridGraph()}).
+ *
+ * The swap operations follow the rules of the corresponding {@link GridGraph} methods, so fake chains always
+ * stay aligned in one row.
+ */
+public class GridLayout {
+
+    private final CompactGrid topology;
+
+    // row of every vertex followed by the vertex in every cell, @see CompactGrid
+    private final int[] positions;
+
+    public GridLayout(GridGraph<?> preparedGraph) {
+        this(new CompactGrid(preparedGraph));
+    }
+
+    public GridLayout(CompactGrid topology) {
+        this(topology, topology.copyPositions());
+    }
+
+    private GridLayout(CompactGrid topology, int[] positions) {
+        this.topology = topology;
+        this.positions = positions;
+    }
+
+    public GridLayout copy() {
+        return new GridLayout(topology, positions.clone());
+    }
+
+    /** Takes over the positions of another layout with the same topology */
+    void copyFrom(GridLayout other) {
+        System.arraycopy(other.positions, 0, positions, 0, positions.length);
+    }
+
+    public CompactGrid getTopology() {
+        return topology;
+    }
+
+    public int getLayerCount() {
+        return topology.layerCount;
+    }
+
+    public int getRowCount() {
+        return topology.rowCount;
+    }
+
+    /** @return the vertex number at the given position, -1 for a spacer */
+    public int vertexAt(int layer, int row) {
+        return positions[topology.cell(layer, row)];
+    }
+
+    public int getRow(int vertex) {
+        return positions[vertex];
+    }
+
+    public int countCrossings() {
+        return topology.countCrossings(positions);
+    }
+
+    /**
+     * Crossings between the layers l and l+1 for every l in fromLayer..toLayer, e.g. only the layer pairs a
+     * {@link #swapTiles(int, int, int)} can change (@see {@link #firstMovedLayer(int, int)}).
+     */
+    public int countCrossings(int fromLayer, int toLayer) {
+        return topology.countCrossings(positions, fromLayer, toLayer);
+    }
+
+    /** @return the change of the crossings, if the rows row and row+1 were swapped with {@link #swapRow(int, int)} */
+    public int rowSwapDelta(int row) {
+        return topology.rowSwapDelta(positions, row);
+    }
+
+    /**
+     * @return the lowest layer {@link #swapTiles(int, int, int)} of the tile at the given position changes:
+     * the start of its incoming fake chain, which moves along.
+     */
+    public int firstMovedLayer(int iLayer, int iRow) {
+        int v = vertexAt(iLayer, iRow);
+        return v < 0 ? iLayer : topology.chainStart[v];
+    }
+
+    /** @see LayoutObjectives#evaluate(GridLayout, int[]) */
+    void evaluate(int[] objectives, long[] occupiedRows) {
+        topology.evaluate(positions, objectives, occupiedRows);
+    }
+
+    /** @see GridGraph#mutate(Random) */
+    public void mutate(Random random) {
+        int ilayer = random.nextInt(topology.layerCount);
+        int ifrom = random.nextInt(topology.rowCount);
+        int ito = ifrom;
+        while (ito == ifrom) {
+            ito = random.nextInt(topology.rowCount);
+        }
+        if (!swapTiles(ilayer, ifrom, ito)) {
+            swapRow(ifrom, ito);
+        }
+    }
+
+    /** @see GridGraph#swapRows(Random) */
+    public void swapRows(Random random) {
+        // the layer is not needed, but drawn anyway to stay in step with GridGraph for the same random
+        random.nextInt(topology.layerCount);
+        int ifrom = random.nextInt(topology.rowCount);
+        int ito = ifrom;
+        while (ito == ifrom) {
+            ito = random.nextInt(topology.rowCount);
+        }
+        swapRow(ifrom, ito);
+    }
+
+    /**
+     * Swaps the tile at the given position with the tile in row iRowTo, taking its incoming fake chain along.
+     * A successful swap is undone by swapTiles(iLayer, iRowTo, iRowFrom).
+     * @return false, if the swap violates one of the rules of {@link GridGraph#swapTiles(int, int, int)}, nothing
+     * is changed in that case.
+     */
+    public boolean swapTiles(int iLayer, int iRowFrom, int iRowTo) {
+        int from = vertexAt(iLayer, iRowFrom);
+        // A fake is only moved together with the vertex it leads to
+        if (from >= 0 && topology.isFake(from)) {
+            return false;
+        }
+        return moveWithIncomingFakes(iLayer, iRowFrom, iRowTo);
+    }
+
+    private boolean moveWithIncomingFakes(int iLayer, int iRowFrom, int iRowTo) {
+        int from = vertexAt(iLayer, iRowFrom);
+        int to = vertexAt(iLayer, iRowTo);
+        if (from < 0 && to < 0) {
+            return false;
+        }
+        if (to >= 0 && (topology.isFake(to) || topology.incomingFake[to] >= 0)) {
+            return false;
+        }
+        if (from >= 0) {
+            int incomingFake = topology.incomingFake[from];
+            if (incomingFake >= 0 && !moveWithIncomingFakes(iLayer - 1, positions[incomingFake], iRowTo)) {
+                return false;
+            }
+        }
+        swap(iLayer, iRowFrom, iRowTo);
+        return true;
+    }
+
+    public void swapRow(int iFrom, int iTo) {
+        for (int i = 0; i < topology.layerCount; i++) {
+            swap(i, iFrom, iTo);
+        }
+    }
+
+    public void swap(int iLayer, int iFrom, int iTo) {
+        int cellFrom = topology.cell(iLayer, iFrom);
+        int cellTo = topology.cell(iLayer, iTo);
+        int from = positions[cellFrom];
+        int to = positions[cellTo];
+        positions[cellFrom] = to;
+        positions[cellTo] = from;
+        if (from >= 0) {
+            positions[from] = iTo;
+        }
+        if (to >= 0) {
+            positions[to] = iFrom;
+        }
+    }
+
+    /**
+     * Order crossover of the rows of two layouts with the same topology, without copying either parent.
+     * A random layer segment is taken over from this layout: every domain vertex in it keeps its row, together
+     * with its incoming fake chain. The remaining chains follow in the row order of the other parent, each in
+     * its row from the other parent if that row is free over the whole chain, otherwise in the first free row.
+     * Chains are never split, so fakes stay aligned with the vertex they lead to.
+     * @return the child, or a copy of this layout if a chain found no free row
+     */
+    public GridLayout crossover(GridLayout other, Random random) {
+        int layerCount = topology.layerCount;
+        int vertexCount = topology.vertexCount;
+        int c1 = random.nextInt(layerCount);
+        int c2 = random.nextInt(layerCount);
+        int from = Math.min(c1, c2);
+        int to = Math.max(c1, c2);
+
+        int[] child = new int[positions.length];
+        Arrays.fill(child, vertexCount, child.length, -1);
+        int remaining = 0;
+        long[] remainingChains = new long[vertexCount];
+        for (int v = 0; v < vertexCount; v++) {
+            if (topology.isFake(v)) {
+                continue;
+            }
+            int layer = topology.layerOf[v];
+            if (layer >= from && layer <= to) {
+                placeChain(child, v, positions[v]);
+            } else {
+                // ordered by the row in the other parent, then by vertex
+                remainingChains[remaining++] = ((long) other.positions[v] << 32) | v;
+            }
+        }
+        Arrays.sort(remainingChains, 0, remaining);
+        for (int i = 0; i < remaining; i++) {
+            int v = (int) remainingChains[i];
+            int row = (int) (remainingChains[i] >>> 32);
+            if (!isChainFree(child, v, row)) {
+                row = 0;
+                while (row < topology.rowCount && !isChainFree(child, v, row)) {
+                    row++;
+                }
+                if (row == topology.rowCount) {
+                    return copy();
+                }
+            }
+            placeChain(child, v, row);
+        }
+        return new GridLayout(topology, child);
+    }
+
+    private boolean isChainFree(int[] cells, int domainVertex, int row) {
+        for (int l = topology.chainStart[domainVertex]; l <= topology.layerOf[domainVertex]; l++) {
+            if (cells[topology.cell(l, row)] >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void placeChain(int[] cells, int domainVertex, int row) {
+        for (int v = domainVertex; v >= 0; v = topology.incomingFake[v]) {
+            cells[v] = row;
+            cells[topology.cell(topology.layerOf[v], row)] = v;
+        }
+    }
+
+    /** Immutable copy of this layout */
+    public CompactGrid toCompactGrid() {
+        return new CompactGrid(topology, positions.clone());
+    }
+
+    public <T> GridGraph<T> toGridGraph() {
+        return topology.toGridGraph(positions);
+    }
+
+    @Override
+    public String toString() {
+        return toGridGraph().toString();
+    }
+}
@@ -0,0 +1,366 @@
+package de.danielstein.gridgraph;
+
+import io.jenetics.Gene;
+import io.jenetics.Genotype;
+import io.jenetics.Phenotype;
+import io.jenetics.engine.Codec;
+import io.jenetics.engine.Engine;
+import io.jenetics.engine.EvolutionResult;
+import io.jenetics.engine.EvolutionStart;
+import io.jenetics.engine.EvolutionStatistics;
+import io.jenetics.engine.EvolutionStream;
+import io.jenetics.engine.Limits;
+import io.jenetics.stat.DoubleMomentStatistics;
+import io.jenetics.util.ISeq;
+import io.jenetics.util.RandomRegistry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+
+/**
+ * Optimizes the row order of a prepared {@link GridGraph} with Jenetics, minimizing the number of crossings.
+ *
+ * Ussage:
+ * <pre>
+ * LayoutResult&lt;JOBS&gt; result = new GridLayoutEngine().populationSize(200).maxDuration(Duration.ofSeconds(5))
+ *         .layout(graph.prepare());
+ * GridGraph&lt;JOBS&gt; best = result.getGraph();
+ * </pre>
+ * The evolution stops at the first limit reached. Without any limit configured it would run forever, so
+ * {@link #maxDuration(Duration)} defaults to two seconds. It also stops as soon as a layout reaches the
+ * {@link CompactGrid#crossingLowerBound() lower bound} of the crossings, no layout can be better.
+ */
+public class GridLayoutEngine {
+
+    private int populationSize = 100;
+    private Executor executor = ForkJoinPool.commonPool();
+    private Duration maxDuration = Duration.ofSeconds(2);
+    private long maxGenerations = 0;
+    private int steadyGenerations = 0;
+    private double mutationProbability = 0.30;
+    private double rowSwapProbability = 0.15;
+    private double crossoverProbability = 0.20;
+    private int sweepSeeds = 1;
+    private int islands = 1;
+    private int migrationInterval = 20;
+    private int migrants = 2;
+    private ForkJoinPool islandPool = ForkJoinPool.commonPool();
+
+    public GridLayoutEngine populationSize(int populationSize) {
+        this.populationSize = populationSize;
+        return this;
+    }
+
+    /** Executor for the fitness evaluation */
+    public GridLayoutEngine executor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /** @param maxDuration null for no time limit */
+    public GridLayoutEngine maxDuration(Duration maxDuration) {
+        this.maxDuration = maxDuration;
+        return this;
+    }
+
+    /** @param maxGenerations 0 for no generation limit */
+    public GridLayoutEngine maxGenerations(long maxGenerations) {
+        this.maxGenerations = maxGenerations;
+        return this;
+    }
+
+    /** Stop, if the best fitness has not improved for the given number of generations. 0 switches it off. */
+    public GridLayoutEngine steadyFitness(int steadyGenerations) {
+        this.steadyGenerations = steadyGenerations;
+        return this;
+    }
+
+    /** Probability for {@link GridLayout#mutate(java.util.Random)} */
+    public GridLayoutEngine mutationProbability(double mutationProbability) {
+        this.mutationProbability = mutationProbability;
+        return this;
+    }
+
+    /** Probability for {@link GridLayout#swapRows(java.util.Random)} */
+    public GridLayoutEngine rowSwapProbability(double rowSwapProbability) {
+        this.rowSwapProbability = rowSwapProbability;
+        return this;
+    }
+
+    /** Probability for {@link LayoutCrossover}, 0 switches recombination off */
+    public GridLayoutEngine crossoverProbability(double crossoverProbability) {
+        this.crossoverProbability = crossoverProbability;
+        return this;
+    }
+
+    /**
+     * Number of initial individuals created by a {@link BarycenterSweep}: the first one from the prepared
+     * layout, the others from randomly mutated copies of it. 0 starts from random individuals only.
+     */
+    public GridLayoutEngine sweepSeeds(int sweepSeeds) {
+        this.sweepSeeds = sweepSeeds;
+        return this;
+    }
+
+    /**
+     * Island model: evolves the given number of independent populations of {@link #populationSize(int)}
+     * each in parallel on the {@link #islandPool(ForkJoinPool)}. Every {@link #migrationInterval(int)}
+     * generations the best {@link #migrants(int)} individuals of every island replace the worst ones of the
+     * next island (ring). The fitness evaluation of each island runs on the island's thread, so the
+     * {@link #executor(Executor)} is not used. 1 (the default) runs a single engine.
+     */
+    public GridLayoutEngine islands(int islands) {
+        this.islands = islands;
+        return this;
+    }
+
+    /** Generations between two migrations of the island model */
+    public GridLayoutEngine migrationInterval(int migrationInterval) {
+        this.migrationInterval = migrationInterval;
+        return this;
+    }
+
+    /** Number of individuals migrating from one island to the next */
+    public GridLayoutEngine migrants(int migrants) {
+        this.migrants = migrants;
+        return this;
+    }
+
+    /** Pool running the islands, the common pool by default */
+    public GridLayoutEngine islandPool(ForkJoinPool islandPool) {
+        this.islandPool = islandPool;
+        return this;
+    }
+
+    /**
+     * Codec for the row orders of the given start layout. The initial individuals are mutated copies of it.
+     */
+    public static Codec<GridLayout, LayoutGene> codec(GridLayout start) {
+        return Codec.of(Genotype.of(LayoutChromosome.of(start)), gt -> gt.gene().allele());
+    }
+
+    /**
+     * @param preparedGraph a graph after {@link GridGraph#prepare()}, it is not changed.
+     */
+    public <T> LayoutResult<T> layout(GridGraph<T> preparedGraph) {
+        return layout(preparedGraph, new LayoutSnapshot.Publisher<>());
+    }
+
+    /**
+     * Same as {@link #layout(GridGraph)}, but readers can follow the optimization: the start layout and every
+     * better layout found are published as {@link LayoutSnapshot} while the evolution is still running. The start
+     * layout always replaces the current snapshot, which may be of another graph, e.g. the one before an edit
+     * with {@link GridGraph#insertEdge(Object, Object)}; crossings are only comparable within one graph. The
+     * island model publishes the improvements of an epoch when it is finished.
+     */
+    public <T> LayoutResult<T> layout(GridGraph<T> preparedGraph, LayoutSnapshot.Publisher<T> publisher) {
+        GridLayout start = new GridLayout(preparedGraph);
+        publisher.publish(LayoutSnapshot.of(start));
+        EvolutionStatistics<Integer, DoubleMomentStatistics> statistics = EvolutionStatistics.ofNumber();
+        int lowerBound = start.getTopology().crossingLowerBound();
+        // a single row can not be reordered, and nothing is better than the lower bound
+        if (start.getRowCount() < 2 || start.countCrossings() <= lowerBound) {
+            return new LayoutResult<>(start, start.countCrossings(), 0, lowerBound, statistics);
+        }
+        if (islands > 1) {
+            return layoutOnIslands(start, lowerBound, statistics, publisher);
+        }
+        EvolutionResult<LayoutGene, Integer> best = limit(engine(start, executor).stream(seeds(start)))
+                .limit(byLowerBound(lowerBound))
+                .peek(statistics)
+                .peek(result -> publishIfBetter(publisher, result.bestPhenotype()))
+                .collect(EvolutionResult.toBestEvolutionResult());
+        GridLayout bestLayout = best.bestPhenotype().genotype().gene().allele();
+        return new LayoutResult<>(bestLayout, best.bestFitness(), best.totalGenerations(), lowerBound, statistics);
+    }
+
+    private <T> LayoutResult<T> layoutOnIslands(GridLayout start, int lowerBound,
+                                                EvolutionStatistics<Integer, DoubleMomentStatistics> statistics,
+                                                LayoutSnapshot.Publisher<T> publisher) {
+        Engine<LayoutGene, Integer> engine = engine(start, Runnable::run);
+        long deadline = maxDuration == null ? Long.MAX_VALUE : System.nanoTime() + maxDuration.toNanos();
+        long generationLimit = maxGenerations > 0 ? maxGenerations : Long.MAX_VALUE;
+
+        List<EvolutionStart<LayoutGene, Integer>> starts = new ArrayList<>(islands);
+        for (int i = 0; i < islands; i++) {
+            starts.add(islandStart(start));
+        }
+
+        Phenotype<LayoutGene, Integer> best = null;
+        long generation = 0;
+        long lastImprovement = 0;
+        while (true) {
+            long epochGenerations = Math.min(migrationInterval, generationLimit - generation);
+            List<Callable<List<EvolutionResult<LayoutGene, Integer>>>> epoch = new ArrayList<>(islands);
+            for (EvolutionStart<LayoutGene, Integer> islandStart : starts) {
+                epoch.add(() -> evolve(engine, islandStart, epochGenerations, deadline, lowerBound));
+            }
+            List<EvolutionResult<LayoutGene, Integer>> lastResults = new ArrayList<>(islands);
+            // islands stop early at the deadline or the lower bound, the others ran on
+            long epochDone = 0;
+            for (Future<List<EvolutionResult<LayoutGene, Integer>>> island : islandPool.invokeAll(epoch)) {
+                List<EvolutionResult<LayoutGene, Integer>> results = join(island);
+                results.forEach(statistics);
+                lastResults.add(results.get(results.size() - 1));
+                epochDone = Math.max(epochDone, results.size());
+                // the best phenotype of a generation may get lost in the following ones
+                for (int i = 0; i < results.size(); i++) {
+                    EvolutionResult<LayoutGene, Integer> result = results.get(i);
+                    if (best == null || result.bestFitness() < best.fitness()) {
+                        best = result.bestPhenotype();
+                        lastImprovement = generation + i + 1;
+                        publishIfBetter(publisher, best);
+                    }
+                }
+            }
+            generation += epochDone;
+            boolean steady = steadyGenerations > 0 && generation - lastImprovement >= steadyGenerations;
+            boolean optimal = best.fitness() <= lowerBound;
+            if (generation >= generationLimit || System.nanoTime() >= deadline || steady || optimal) {
+                break;
+            }
+            starts = migrate(lastResults);
+        }
+        GridLayout bestLayout = best.genotype().gene().allele();
+        return new LayoutResult<>(bestLayout, best.fitness(), generation, lowerBound, statistics);
+    }
+
+    /**
+     * Full start population of one island: the sweep seeds, filled up with randomly mutated copies of the start
+     * layout, as many mutations as rows like the seeds. {@link Engine#evolve(EvolutionStart)} only creates a
+     * population if it is empty, a partial one would stay the copies of the seeds, the same on every island.
+     */
+    EvolutionStart<LayoutGene, Integer> islandStart(GridLayout start) {
+        Random random = RandomRegistry.random();
+        List<Genotype<LayoutGene>> population = seeds(start);
+        while (population.size() < populationSize) {
+            GridLayout individual = start.copy();
+            for (int m = 0; m < individual.getRowCount(); m++) {
+                individual.mutate(random);
+            }
+            population.add(Genotype.of(LayoutChromosome.of(individual)));
+        }
+        ISeq<Phenotype<LayoutGene, Integer>> phenotypes = population.stream()
+                .map(gt -> Phenotype.<LayoutGene, Integer>of(gt, 1)).collect(ISeq.toISeq());
+        return EvolutionStart.of(phenotypes, 1);
+    }
+
+    /**
+     * Limit for an evolution stream minimizing the crossings, which stops after the first result reaching the
+     * lower bound. Unlike a plain predicate on the best fitness, that result is still passed on, so it is
+     * collected. Stateful, it can be used for one stream only.
+     * @see CompactGrid#crossingLowerBound()
+     */
+    public static <G extends Gene<?, G>> Predicate<EvolutionResult<G, Integer>> byLowerBound(int lowerBound) {
+        boolean[] reached = new boolean[1];
+        return result -> {
+            if (reached[0]) {
+                return false;
+            }
+            reached[0] = result.bestFitness() <= lowerBound;
+            return true;
+        };
+    }
+
+    /** Builds a snapshot only if the phenotype is better than the published one, they are not for free */
+    private static <T> void publishIfBetter(LayoutSnapshot.Publisher<T> publisher,
+                                            Phenotype<LayoutGene, Integer> best) {
+        LayoutSnapshot<T> current = publisher.current();
+        if (current == null || best.fitness() < current.getCrossings()) {
+            publisher.publishIfBetter(LayoutSnapshot.of(best.genotype().gene().allele()));
+        }
+    }
+
+    /** Evolves one island for the given number of generations, until the deadline or the lower bound is reached. */
+    private static List<EvolutionResult<LayoutGene, Integer>> evolve(Engine<LayoutGene, Integer> engine,
+                                                                     EvolutionStart<LayoutGene, Integer> start,
+                                                                     long generations, long deadline,
+                                                                     int lowerBound) {
+        List<EvolutionResult<LayoutGene, Integer>> results = new ArrayList<>();
+        EvolutionStart<LayoutGene, Integer> next = start;
+        EvolutionResult<LayoutGene, Integer> result;
+        do {
+            result = engine.evolve(next);
+            results.add(result);
+            next = result.next();
+        } while (results.size() < generations && System.nanoTime() < deadline && result.bestFitness() > lowerBound);
+        return results;
+    }
+
+    /** Ring migration: the best individuals of every island replace the worst ones of the next island. */
+    private List<EvolutionStart<LayoutGene, Integer>> migrate(List<EvolutionResult<LayoutGene, Integer>> results) {
+        List<EvolutionStart<LayoutGene, Integer>> starts = new ArrayList<>(results.size());
+        for (int i = 0; i < results.size(); i++) {
+            EvolutionResult<LayoutGene, Integer> from = results.get((i + results.size() - 1) % results.size());
+            EvolutionResult<LayoutGene, Integer> to = results.get(i);
+            List<Phenotype<LayoutGene, Integer>> population = new ArrayList<>(to.population().asList());
+            List<Phenotype<LayoutGene, Integer>> emigrants = new ArrayList<>(from.population().asList());
+            population.sort(Comparator.comparing(Phenotype::fitness));
+            emigrants.sort(Comparator.comparing(Phenotype::fitness));
+            int count = Math.min(migrants, Math.min(population.size(), emigrants.size()));
+            for (int m = 0; m < count; m++) {
+                population.set(population.size() - 1 - m, emigrants.get(m));
+            }
+            starts.add(EvolutionStart.of(ISeq.of(population), to.next().generation()));
+        }
+        return starts;
+    }
+
+    private static <R> R join(Future<R> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Island evolution interrupted");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Island evolution failed", e.getCause());
+        }
+    }
+
+    List<Genotype<LayoutGene>> seeds(GridLayout start) {
+        BarycenterSweep sweep = new BarycenterSweep();
+        Random random = RandomRegistry.random();
+        List<Genotype<LayoutGene>> seeds = new ArrayList<>(sweepSeeds);
+        for (int i = 0; i < Math.min(sweepSeeds, populationSize); i++) {
+            GridLayout seed = start.copy();
+            for (int m = 0; i > 0 && m < seed.getRowCount(); m++) {
+                seed.mutate(random);
+            }
+            seeds.add(Genotype.of(LayoutChromosome.of(sweep.optimize(seed))));
+        }
+        return seeds;
+    }
+
+    Engine<LayoutGene, Integer> engine(GridLayout start, Executor executor) {
+        return Engine.builder(GridLayout::countCrossings, codec(start))
+                .minimizing()
+                .populationSize(populationSize)
+                .executor(executor)
+                .alterers(new LayoutCrossover<>(crossoverProbability),
+                        new LayoutMutator<>(mutationProbability), new LayoutMutator<>(rowSwapProbability, true))
+                .build();
+    }
+
+    EvolutionStream<LayoutGene, Integer> limit(EvolutionStream<LayoutGene, Integer> stream) {
+        if (maxDuration != null) {
+            stream = stream.limit(Limits.byExecutionTime(maxDuration));
+        }
+        if (maxGenerations > 0) {
+            stream = stream.limit(Limits.byFixedGeneration(maxGenerations));
+        }
+        if (steadyGenerations > 0) {
+            stream = stream.limit(Limits.bySteadyFitness(steadyGenerations));
+        }
+        return stream;
+    }
+}
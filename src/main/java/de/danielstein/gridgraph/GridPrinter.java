@@ -1,5 +1,10 @@
 package de.danielstein.gridgraph;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Arrays;
 import java.util.List;
 
 public class GridPrinter {
@@ -10,77 +15,134 @@ public class GridPrinter {
         this.graph = graph;
     }
 
-
-    // Methode, um die maximale Länge der Elemente zu bestimmen
-    private int getMaxElementLength() {
-        int maxLength = 0;
-        for (List<Tile> layer : graph.layers) {
-            for (Tile tile : layer) {
-                int length = tile.toString().length();
-                if (length > maxLength) {
-                    maxLength = length;
-                }
-            }
+    public String getGridAsString() {
+        StringWriter writer = new StringWriter();
+        try {
+            print(writer);
+        } catch (IOException e) {
+            // a StringWriter does not throw
+            throw new UncheckedIOException(e);
         }
-        return maxLength;
+        return writer.toString();
     }
 
-    public String getGridAsString() {
+    /**
+     * Writes the grid into out. The cell texts are built once per tile, the column width is the length of the
+     * longest {@link Tile#toString()}, cells are right aligned.
+     */
+    public void print(Writer out) throws IOException {
+        List<List<Tile>> layers = graph.layers;
+        int numberOfRows = layers.stream().mapToInt(List::size).max().orElse(0);
 
-        StringBuilder sb = new StringBuilder();
-        //sb.append("Fitness: " +graph.getCrossingEdges().size());
-        sb.append("\n\n");
-        // Bestimme die maximale Länge der Elemente
-        int maxLength = getMaxElementLength();
-
-        // Anzahl der maximalen Zeilen ermitteln
-        int numberOfRows = graph.layers.stream().map(List::size).max(Integer::compare).get();
+        // cell texts and column width in one pass
+        String[][] cells = new String[layers.size()][];
+        int maxLength = 0;
+        for (int col = 0; col < layers.size(); col++) {
+            List<Tile> column = layers.get(col);
+            cells[col] = new String[column.size()];
+            for (int row = 0; row < column.size(); row++) {
+                Tile tile = column.get(row);
+                cells[col][row] = tile2String(tile);
+                maxLength = Math.max(maxLength, toStringLength(tile));
+            }
+        }
+        char[] spaces = new char[maxLength];
+        Arrays.fill(spaces, ' ');
 
+        out.write("\n\n");
         // Spaltennummern hinzufügen
-        sb.append("   "); // Platz für Zeilennummern lassen
-        for (int col = 0; col < graph.layers.size(); col++) {
-            sb.append(String.format("%" + maxLength + "s ", "S" + col));
+        out.write("   "); // Platz für Zeilennummern lassen
+        for (int col = 0; col < layers.size(); col++) {
+            writePadded(out, "S" + col, spaces);
         }
-        sb.append("\n");
+        out.write('\n');
 
-        // Durch jede Zeile iterieren
         for (int row = 0; row < numberOfRows; row++) {
-            // Zeilennummer hinzufügen
-            sb.append(String.format("Z%d ", row));
-
-            // Durch jede Spalte iterieren
-            for (List<Tile> column : graph.layers) {
-                // Element der aktuellen Zeile und Spalte hinzufügen
-                Tile tile = column.size() > row ? column.get(row) : null;
-
-                sb.append(String.format("%" + maxLength + "s ", tile2String(tile)));
+            out.write('Z');
+            out.write(Integer.toString(row));
+            out.write(' ');
+            for (String[] column : cells) {
+                writePadded(out, column.length > row ? column[row] : "", spaces);
             }
-            // Nach jeder Zeile einen Zeilenumbruch hinzufügen
-            sb.append("\n");
+            out.write('\n');
+        }
+    }
+
+    private static void writePadded(Writer out, String text, char[] spaces) throws IOException {
+        if (text.length() < spaces.length) {
+            out.write(spaces, 0, spaces.length - text.length());
         }
+        out.write(text);
+        out.write(' ');
+    }
 
-        return sb.toString();
+    /** Length of {@link Tile#toString()}, without building it for spacers and fakes */
+    private static int toStringLength(Tile tile) {
+        if (tile.isSpacer()) {
+            return 1;
+        }
+        Vertex vertex = (Vertex) tile;
+        int idLength = 1 + Integer.toString(vertex.id).length();
+        if (vertex.isFake()) {
+            return idLength;
+        }
+        return idLength + 2 + String.valueOf(vertex.getDomainObj()).length();
     }
 
-    private String tile2String(Tile tile) {
-        if (  tile.isSpacer()) {
+    private static String tile2String(Tile tile) {
+        if (tile.isSpacer()) {
             return "";
         }
         Vertex vertex = (Vertex) tile;
-        if ( vertex.isDomainObject()) {
-            StringBuilder b = new StringBuilder();
-            long countIRows = vertex.incomingEdgesFrom().stream().map(Vertex::getRow).distinct().count();
-            b.append(countIRows > 1 ? "+-"  : "--");
-            b.append(vertex.getDomainObj().toString());
-            long countORows = vertex.outgoingEdgesTo().stream().map(Vertex::getRow).distinct().count();
-            b.append(countORows > 1 ? "-+"  : "--");
-            return  b.toString();
+        if (vertex.isDomainObject()) {
+            return (hasSeveralSourceRows(vertex) ? "+-" : "--") + vertex.getDomainObj()
+                    + (hasSeveralTargetRows(vertex) ? "-+" : "--");
         }
         // Fake
-        StringBuilder b = new StringBuilder(3);
-        b.append(vertex.incomingEdgesFrom().size() > 1 ? '+' : '-');
-        b.append('-');
-        b.append(vertex.outgoingEdgesTo().size() > 1 ? '+' : '-');
-        return b.toString();
+        char[] b = new char[3];
+        b[0] = hasSeveralSources(vertex) ? '+' : '-';
+        b[1] = '-';
+        b[2] = hasSeveralTargets(vertex) ? '+' : '-';
+        return new String(b);
+    }
+
+    private static boolean hasSeveralSourceRows(Vertex vertex) {
+        List<Edge> edges = vertex.targetEdges;
+        for (int i = 1; i < edges.size(); i++) {
+            if (edges.get(i).source.getRow() != edges.get(0).source.getRow()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasSeveralTargetRows(Vertex vertex) {
+        List<Edge> edges = vertex.sourceEdges;
+        for (int i = 1; i < edges.size(); i++) {
+            if (edges.get(i).target.getRow() != edges.get(0).target.getRow()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasSeveralSources(Vertex vertex) {
+        List<Edge> edges = vertex.targetEdges;
+        for (int i = 1; i < edges.size(); i++) {
+            if (!edges.get(i).source.equals(edges.get(0).source)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasSeveralTargets(Vertex vertex) {
+        List<Edge> edges = vertex.sourceEdges;
+        for (int i = 1; i < edges.size(); i++) {
+            if (!edges.get(i).target.equals(edges.get(0).target)) {
+                return true;
+            }
+        }
+        return false;
     }
 }
@@ -0,0 +1,214 @@
+package de.danielstein.gridgraph;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+
+/**
+ * Minimal pull parser for JSON: reads token by token from a Reader with a fixed buffer, so large documents
+ * can be scanned with flat memory. Only names and the values asked for are materialized,
+ * {@link #skipValue()} passes over objects, arrays and strings without building them.
+ *
+ * It is meant for reading trusted exports, so the syntax is not fully validated (e.g. commas are skipped).
+ */
+class JsonPullReader implements Closeable {
+
+    enum Token { BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, LITERAL, END_DOCUMENT }
+
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int pos;
+    private int limit;
+
+    private Token peeked;
+    private final StringBuilder text = new StringBuilder();
+
+    JsonPullReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /** @return the next token without consuming it */
+    Token peek() throws IOException {
+        if (peeked == null) {
+            peeked = read(true);
+        }
+        return peeked;
+    }
+
+    /** Consumes the next token, its text is available via {@link #text()} for names, strings, numbers and literals */
+    Token next() throws IOException {
+        Token token = peek();
+        peeked = null;
+        return token;
+    }
+
+    /** Text of the last name, string, number or literal */
+    String text() {
+        return text.toString();
+    }
+
+    /** Consumes the next token, which has to be the given one */
+    void expect(Token expected) throws IOException {
+        Token token = next();
+        if (token != expected) {
+            throw new IOException("Expected " + expected + " but was " + token);
+        }
+    }
+
+    /** Consumes the next value completely, including all nested objects and arrays */
+    void skipValue() throws IOException {
+        int depth = 0;
+        do {
+            Token token = peeked != null ? peeked : read(false);
+            peeked = null;
+            switch (token) {
+                case BEGIN_OBJECT:
+                case BEGIN_ARRAY:
+                    depth++;
+                    break;
+                case END_OBJECT:
+                case END_ARRAY:
+                    depth--;
+                    break;
+                case END_DOCUMENT:
+                    throw new IOException("Unexpected end of document");
+                default:
+            }
+        } while (depth > 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private Token read(boolean keepText) throws IOException {
+        text.setLength(0);
+        int c = nextNonSeparator();
+        switch (c) {
+            case -1:
+                return Token.END_DOCUMENT;
+            case '{':
+                return Token.BEGIN_OBJECT;
+            case '}':
+                return Token.END_OBJECT;
+            case '[':
+                return Token.BEGIN_ARRAY;
+            case ']':
+                return Token.END_ARRAY;
+            case '"':
+                readString(keepText);
+                // a string followed by a colon is the name of a member
+                if (nextNonWhitespace() == ':') {
+                    pos++;
+                    return Token.NAME;
+                }
+                return Token.STRING;
+            default:
+                pos--;
+                boolean number = c == '-' || (c >= '0' && c <= '9');
+                readWord(keepText);
+                return number ? Token.NUMBER : Token.LITERAL;
+        }
+    }
+
+    /** @return the next char which is neither whitespace nor a comma, consumed */
+    private int nextNonSeparator() throws IOException {
+        while (true) {
+            int c = nextNonWhitespace();
+            if (c < 0) {
+                return c;
+            }
+            pos++;
+            if (c != ',') {
+                return c;
+            }
+        }
+    }
+
+    /** @return the next char which is no whitespace, not consumed */
+    private int nextNonWhitespace() throws IOException {
+        while (pos < limit || fill()) {
+            char c = buffer[pos];
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return c;
+            }
+            pos++;
+        }
+        return -1;
+    }
+
+    private void readString(boolean keepText) throws IOException {
+        while (pos < limit || fill()) {
+            char c = buffer[pos++];
+            if (c == '"') {
+                return;
+            }
+            if (c == '\\') {
+                c = readEscaped();
+            }
+            if (keepText) {
+                text.append(c);
+            }
+        }
+        throw new IOException("Unterminated string");
+    }
+
+    private char readEscaped() throws IOException {
+        char c = nextChar();
+        switch (c) {
+            case 'b': return '\b';
+            case 'f': return '\f';
+            case 'n': return '\n';
+            case 'r': return '\r';
+            case 't': return '\t';
+            case 'u':
+                int code = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(nextChar(), 16);
+                    if (digit < 0) {
+                        throw new IOException("Invalid unicode escape");
+                    }
+                    code = code * 16 + digit;
+                }
+                return (char) code;
+            default:
+                return c;
+        }
+    }
+
+    private void readWord(boolean keepText) throws IOException {
+        while (pos < limit || fill()) {
+            char c = buffer[pos];
+            if (c == ',' || c == '}' || c == ']' || c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                return;
+            }
+            if (keepText) {
+                text.append(c);
+            }
+            pos++;
+        }
+    }
+
+    private char nextChar() throws IOException {
+        if (pos < limit || fill()) {
+            return buffer[pos++];
+        }
+        throw new IOException("Unexpected end of document");
+    }
+
+    /** Reads the next chunk, the reading thread can be interrupted between two chunks */
+    private boolean fill() throws IOException {
+        if (Thread.interrupted()) {
+            throw new InterruptedIOException("Reading interrupted");
+        }
+        limit = reader.read(buffer, 0, buffer.length);
+        pos = 0;
+        if (limit < 0) {
+            limit = 0;
+            return false;
+        }
+        return true;
+    }
+}
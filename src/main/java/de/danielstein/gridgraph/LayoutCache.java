@@ -0,0 +1,263 @@
+package de.danielstein.gridgraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * In memory cache of finished layouts, keyed by the structure of the graph only: two graphs with the same edges
+ * between different domain objects, or added in a different order, share one entry.
+ *
+ * The key is a canonical hash of the edge structure (Weisfeiler-Lehman refinement of the vertex labels).
+ * On a hit the vertices of the new graph are matched with the cached ones in canonical order and the match is
+ * verified edge by edge; the cached layout is then returned for the new domain objects without calling
+ * {@link GridGraph#prepare()} or the layouter. Graphs whose vertices can not be told apart by the refinement
+ * may fail the verification, they are treated as miss and replace the entry.
+ *
+ * Entries are evicted least recently used first, when there are more than {@link #maxEntries(int)} or their
+ * weight (vertices plus edges of the layouted grid) exceeds {@link #maxWeight(long)}.
+ *
+ * Usage:
+ * GridGraph<JOBS> layouted = cache.layout(graph, g -> engine.layout(g.prepare()).getGraph())
+ */
+public class LayoutCache {
+
+    private int maxEntries = 1000;
+    private long maxWeight = 10_000_000;
+
+    // access order: the eldest entry is the least recently used one
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /** Maximal number of cached layouts */
+    public LayoutCache maxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+        return this;
+    }
+
+    /** Maximal summed weight (vertices plus edges, fakes included) of the cached layouts */
+    public LayoutCache maxWeight(long maxWeight) {
+        this.maxWeight = maxWeight;
+        return this;
+    }
+
+    /**
+     * @param graph a graph built with {@link GridGraph#addEdge(Object, Object)}, not yet prepared. On a hit it is
+     * not changed, on a miss it is handed to the layouter, which usually prepares it in place.
+     * @param layouter prepares and layouts the graph on a miss, e.g. with the {@link GridLayoutEngine}
+     * @return the layouted graph: the cached layout for the domain objects of the given graph, or the result of
+     * the layouter
+     */
+    public <T> GridGraph<T> layout(GridGraph<T> graph, UnaryOperator<GridGraph<T>> layouter) {
+        if (!graph.layers.isEmpty()) {
+            throw new IllegalArgumentException("Graph is already prepared");
+        }
+        Canonical canonical = new Canonical(graph.getDomainVertices());
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(canonical.hash);
+            if (entry != null && Arrays.equals(entry.edges, canonical.edges)) {
+                hits++;
+            } else {
+                entry = null;
+                misses++;
+            }
+        }
+        if (entry != null) {
+            return entry.relabel(canonical);
+        }
+        GridGraph<T> layouted = layouter.apply(graph);
+        put(canonical, new Entry(canonical, layouted));
+        return layouted;
+    }
+
+    private synchronized void put(Canonical canonical, Entry entry) {
+        Entry replaced = entries.put(canonical.hash, entry);
+        if (replaced != null) {
+            weight -= replaced.weight;
+        }
+        weight += entry.weight;
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (entries.size() > maxEntries || weight > maxWeight && entries.size() > 1) {
+            weight -= eldest.next().weight;
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "LayoutCache{entries=" + entries.size() + ", weight=" + weight + ", hits=" + hits
+                + ", misses=" + misses + ", evictions=" + evictions + '}';
+    }
+
+    /** A cached layout: the grid and for every canonical vertex number its vertex in the grid */
+    private static class Entry {
+        final CompactGrid grid;
+        final int[] canonical2Vertex;
+        final long[] edges;
+        final long weight;
+
+        Entry(Canonical canonical, GridGraph<?> layouted) {
+            grid = new CompactGrid(layouted);
+            Map<Object, Integer> domainObj2Vertex = new HashMap<>();
+            for (int v = 0; v < grid.vertexCount; v++) {
+                if (!grid.isFake(v)) {
+                    domainObj2Vertex.put(grid.domainObjs[v], v);
+                }
+            }
+            canonical2Vertex = new int[canonical.order.length];
+            for (int i = 0; i < canonical.order.length; i++) {
+                canonical2Vertex[i] = domainObj2Vertex.get(canonical.order[i].getDomainObj());
+            }
+            edges = canonical.edges;
+            weight = grid.getVertexCount() + grid.getEdgeCount();
+        }
+
+        <T> GridGraph<T> relabel(Canonical canonical) {
+            Object[] domainObjs = grid.domainObjs.clone();
+            for (int i = 0; i < canonical2Vertex.length; i++) {
+                domainObjs[canonical2Vertex[i]] = canonical.order[i].getDomainObj();
+            }
+            return new CompactGrid(grid, domainObjs).toGridGraph();
+        }
+    }
+
+    /**
+     * Canonical form of the edge structure: the vertices ordered by their refined label (ties in adding order),
+     * the edges as sorted pairs of canonical numbers and a hash over both.
+     */
+    static class Canonical {
+        final Vertex[] order;
+        final long[] edges;
+        final long hash;
+
+        Canonical(Collection<Vertex> vertices) {
+            int n = vertices.size();
+            Vertex[] byAdding = vertices.toArray(new Vertex[0]);
+            Map<Vertex, Integer> index = new IdentityHashMap<>();
+            for (int v = 0; v < n; v++) {
+                index.put(byAdding[v], v);
+            }
+            int[][] out = new int[n][];
+            int[][] in = new int[n][];
+            int edgeCount = 0;
+            for (int v = 0; v < n; v++) {
+                out[v] = byAdding[v].sourceEdges.stream().mapToInt(e -> index.get(e.target)).toArray();
+                in[v] = byAdding[v].targetEdges.stream().mapToInt(e -> index.get(e.source)).toArray();
+                edgeCount += out[v].length;
+            }
+
+            long[] labels = new long[n];
+            for (int v = 0; v < n; v++) {
+                labels[v] = mix(mix(in[v].length) ^ out[v].length);
+            }
+            int classes = countDistinct(labels);
+            // refine until the partition into label classes is stable
+            while (true) {
+                long[] refined = new long[n];
+                for (int v = 0; v < n; v++) {
+                    refined[v] = mix(labels[v] ^ mix(multiset(labels, out[v]) + 31 * multiset(labels, in[v])));
+                }
+                int refinedClasses = countDistinct(refined);
+                labels = refined;
+                if (refinedClasses == classes) {
+                    break;
+                }
+                classes = refinedClasses;
+            }
+
+            long[] finalLabels = labels;
+            List<Integer> sorted = new ArrayList<>(n);
+            for (int v = 0; v < n; v++) {
+                sorted.add(v);
+            }
+            sorted.sort(Comparator.comparingLong((Integer v) -> finalLabels[v]));
+            order = new Vertex[n];
+            int[] canonicalOf = new int[n];
+            for (int i = 0; i < n; i++) {
+                order[i] = byAdding[sorted.get(i)];
+                canonicalOf[sorted.get(i)] = i;
+            }
+
+            edges = new long[edgeCount];
+            int e = 0;
+            for (int v = 0; v < n; v++) {
+                for (int target : out[v]) {
+                    edges[e++] = ((long) canonicalOf[v] << 32) | canonicalOf[target];
+                }
+            }
+            Arrays.sort(edges);
+
+            long[] sortedLabels = finalLabels.clone();
+            Arrays.sort(sortedLabels);
+            long h = mix(n) ^ mix(edgeCount + 0x9E3779B97F4A7C15L);
+            for (long label : sortedLabels) {
+                h = mix(h ^ label);
+            }
+            hash = h;
+        }
+
+        /** Order independent hash of the labels of the given vertices */
+        private static long multiset(long[] labels, int[] vertices) {
+            long[] neighbours = new long[vertices.length];
+            for (int i = 0; i < vertices.length; i++) {
+                neighbours[i] = labels[vertices[i]];
+            }
+            Arrays.sort(neighbours);
+            long h = vertices.length;
+            for (long label : neighbours) {
+                h = mix(h ^ label);
+            }
+            return h;
+        }
+
+        private static int countDistinct(long[] labels) {
+            return (int) Arrays.stream(labels).distinct().count();
+        }
+
+        /** splitmix64 finalizer */
+        private static long mix(long z) {
+            z += 0x9E3779B97F4A7C15L;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package de.danielstein.gridgraph;
+
+import io.jenetics.AbstractChromosome;
+import io.jenetics.Chromosome;
+import io.jenetics.util.ISeq;
+
+/**
+ * Chromosome with exactly one {@link LayoutGene}.
+ */
+public class LayoutChromosome extends AbstractChromosome<LayoutGene> {
+
+    private static final long serialVersionUID = 1L;
+
+    public LayoutChromosome(ISeq<LayoutGene> genes) {
+        super(genes);
+    }
+
+    public static LayoutChromosome of(GridLayout layout) {
+        return new LayoutChromosome(ISeq.of(new LayoutGene(layout)));
+    }
+
+    @Override
+    public Chromosome<LayoutGene> newInstance(ISeq<LayoutGene> genes) {
+        return new LayoutChromosome(genes);
+    }
+
+    @Override
+    public Chromosome<LayoutGene> newInstance() {
+        return new LayoutChromosome(ISeq.of(gene().newInstance()));
+    }
+}
@@ -0,0 +1,35 @@
+package de.danielstein.gridgraph;
+
+import io.jenetics.Genotype;
+import io.jenetics.Phenotype;
+import io.jenetics.Recombinator;
+import io.jenetics.util.MSeq;
+import io.jenetics.util.RandomRegistry;
+
+import java.util.Random;
+
+/**
+ * Recombines the row orders of two layouts, @see {@link GridLayout#crossover(GridLayout, Random)}.
+ * Both parents are replaced by one child each.
+ * @param <C> fitness type, Integer for the crossings or a Vec of {@link LayoutObjectives}
+ */
+public class LayoutCrossover<C extends Comparable<? super C>> extends Recombinator<LayoutGene, C> {
+
+    public LayoutCrossover(double probability) {
+        super(probability, 2);
+    }
+
+    @Override
+    protected int recombine(MSeq<Phenotype<LayoutGene, C>> population, int[] individuals, long generation) {
+        Random random = RandomRegistry.random();
+        GridLayout parent1 = population.get(individuals[0]).genotype().gene().allele();
+        GridLayout parent2 = population.get(individuals[1]).genotype().gene().allele();
+        population.set(individuals[0], phenotype(parent1.crossover(parent2, random), generation));
+        population.set(individuals[1], phenotype(parent2.crossover(parent1, random), generation));
+        return 2;
+    }
+
+    private static <C extends Comparable<? super C>> Phenotype<LayoutGene, C> phenotype(GridLayout layout, long generation) {
+        return Phenotype.of(Genotype.of(LayoutChromosome.of(layout)), generation);
+    }
+}
@@ -0,0 +1,40 @@
+package de.danielstein.gridgraph;
+
+import io.jenetics.Gene;
+import io.jenetics.util.RandomRegistry;
+
+/**
+ * Gene holding the row orders of a layout. The allele is never changed in place, alterers work on a
+ * {@link GridLayout#copy()}.
+ */
+public class LayoutGene implements Gene<GridLayout, LayoutGene> {
+
+    private final GridLayout layout;
+
+    public LayoutGene(GridLayout layout) {
+        this.layout = layout;
+    }
+
+    @Override
+    public GridLayout allele() {
+        return layout;
+    }
+
+    /** A randomly mutated copy, used for the initial population. */
+    @Override
+    public LayoutGene newInstance() {
+        GridLayout newInstance = layout.copy();
+        newInstance.mutate(RandomRegistry.random());
+        return new LayoutGene(newInstance);
+    }
+
+    @Override
+    public LayoutGene newInstance(GridLayout value) {
+        return new LayoutGene(value);
+    }
+
+    @Override
+    public boolean isValid() {
+        return true;
+    }
+}
@@ -0,0 +1,36 @@
+package de.danielstein.gridgraph;
+
+import io.jenetics.Mutator;
+
+import java.util.Random;
+
+/**
+ * Mutates a copy of the layout, either with {@link GridLayout#mutate(Random)} or only by swapping whole rows
+ * (@see {@link GridLayout#swapRows(Random)}), which is the counterpart of
+ * {@link de.danielstein.gridgraph.experiment.SwapRowMutator} for {@link LayoutGene}s.
+ * @param <C> fitness type, Integer for the crossings or a Vec of {@link LayoutObjectives}
+ */
+public class LayoutMutator<C extends Comparable<? super C>> extends Mutator<LayoutGene, C> {
+
+    private final boolean rowSwapsOnly;
+
+    public LayoutMutator(double probability) {
+        this(probability, false);
+    }
+
+    public LayoutMutator(double probability, boolean rowSwapsOnly) {
+        super(probability);
+        this.rowSwapsOnly = rowSwapsOnly;
+    }
+
+    @Override
+    protected LayoutGene mutate(LayoutGene gene, Random random) {
+        GridLayout copy = gene.allele().copy();
+        if (rowSwapsOnly) {
+            copy.swapRows(random);
+        } else {
+            copy.mutate(random);
+        }
+        return gene.newInstance(copy);
+    }
+}
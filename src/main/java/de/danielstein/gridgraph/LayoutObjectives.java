@@ -0,0 +1,77 @@
+package de.danielstein.gridgraph;
+
+import io.jenetics.Optimize;
+import io.jenetics.ext.moea.Vec;
+import io.jenetics.ext.moea.VecFactory;
+
+/**
+ * The quality of a layout beyond the number of crossings, all objectives to be minimized:
+ * <ul>
+ *     <li>{@link #CROSSINGS}: crossings of all layer pairs, same as {@link GridLayout#countCrossings()}</li>
+ *     <li>{@link #ROW_JUMPS}: sum of the rows every edge goes up or down</li>
+ *     <li>{@link #BENDS}: edges changing the row, which {@link BoxDrawing} draws with corners</li>
+ *     <li>{@link #HEIGHT}: rows containing at least one vertex, i.e. the row count after removing empty rows</li>
+ * </ul>
+ * They are computed together in one sweep over the layers into an int[], without allocating anything if the
+ * array is passed in. The vector serves both ways of selection in Jenetics: {@link #weightedSum(int[], int[])}
+ * as single fitness, {@link #vec(int[])} for the Pareto selectors of jenetics.ext (NSGA-II, @see
+ * io.jenetics.ext.moea.NSGA2Selector).
+ */
+public final class LayoutObjectives {
+
+    public static final int CROSSINGS = 0;
+    public static final int ROW_JUMPS = 1;
+    public static final int BENDS = 2;
+    public static final int HEIGHT = 3;
+    /** Length of the objective vector */
+    public static final int COUNT = 4;
+
+    /** All objectives minimized, for {@link #vec(int[])} */
+    public static final VecFactory<int[]> VEC_FACTORY = VecFactory.ofIntVec(
+            Optimize.MINIMUM, Optimize.MINIMUM, Optimize.MINIMUM, Optimize.MINIMUM);
+
+    private static final ThreadLocal<long[]> OCCUPIED_ROWS = ThreadLocal.withInitial(() -> new long[1]);
+
+    private LayoutObjectives() {
+    }
+
+    /** @return a new objective vector of the layout */
+    public static int[] evaluate(GridLayout layout) {
+        int[] objectives = new int[COUNT];
+        evaluate(layout, objectives);
+        return objectives;
+    }
+
+    /**
+     * Writes the objectives of the layout into the given array, indexed by {@link #CROSSINGS} etc.
+     * Allocates nothing once the thread has evaluated a grid of that height.
+     */
+    public static void evaluate(GridLayout layout, int[] objectives) {
+        long[] occupiedRows = OCCUPIED_ROWS.get();
+        int words = (layout.getRowCount() + 63) >>> 6;
+        if (occupiedRows.length < words) {
+            occupiedRows = new long[words];
+            OCCUPIED_ROWS.set(occupiedRows);
+        }
+        layout.evaluate(objectives, occupiedRows);
+    }
+
+    /** @return sum of the objectives multiplied by the weights, both indexed by {@link #CROSSINGS} etc. */
+    public static long weightedSum(int[] objectives, int[] weights) {
+        long sum = 0;
+        for (int i = 0; i < COUNT; i++) {
+            sum += (long) objectives[i] * weights[i];
+        }
+        return sum;
+    }
+
+    /** @return the objectives as vector for Pareto dominance, all of them minimized */
+    public static Vec<int[]> vec(int[] objectives) {
+        return VEC_FACTORY.newVec(objectives);
+    }
+
+    /** Fitness function for a multi objective {@link io.jenetics.engine.Engine} */
+    public static Vec<int[]> vec(GridLayout layout) {
+        return vec(evaluate(layout));
+    }
+}
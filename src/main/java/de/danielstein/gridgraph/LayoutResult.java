@@ -0,0 +1,67 @@
+package de.danielstein.gridgraph;
+
+import io.jenetics.engine.EvolutionStatistics;
+import io.jenetics.stat.DoubleMomentStatistics;
+
+/**
+ * Best layout found by the {@link GridLayoutEngine} together with the statistics of the evolution.
+ * @param <T> Type of the domainObjects
+ */
+public class LayoutResult<T> {
+
+    private final GridLayout layout;
+    private final int crossings;
+    private final long generations;
+    private final int lowerBound;
+    private final EvolutionStatistics<Integer, DoubleMomentStatistics> statistics;
+    private GridGraph<T> graph;
+
+    LayoutResult(GridLayout layout, int crossings, long generations, int lowerBound,
+                 EvolutionStatistics<Integer, DoubleMomentStatistics> statistics) {
+        this.layout = layout;
+        this.crossings = crossings;
+        this.generations = generations;
+        this.lowerBound = lowerBound;
+        this.statistics = statistics;
+    }
+
+    public GridLayout getLayout() {
+        return layout;
+    }
+
+    /** The best layout as GridGraph, materialized on first access */
+    public synchronized GridGraph<T> getGraph() {
+        if (graph == null) {
+            graph = layout.toGridGraph();
+        }
+        return graph;
+    }
+
+    public int getCrossings() {
+        return crossings;
+    }
+
+    public long getGenerations() {
+        return generations;
+    }
+
+    /** @see CompactGrid#crossingLowerBound() */
+    public int getLowerBound() {
+        return lowerBound;
+    }
+
+    /** @return true if the crossings reached the lower bound, so the layout is optimal */
+    public boolean isOptimal() {
+        return crossings <= lowerBound;
+    }
+
+    public EvolutionStatistics<Integer, DoubleMomentStatistics> getStatistics() {
+        return statistics;
+    }
+
+    @Override
+    public String toString() {
+        return "LayoutResult{crossings=" + crossings + ", lowerBound=" + lowerBound + ", generations=" + generations
+                + '}';
+    }
+}
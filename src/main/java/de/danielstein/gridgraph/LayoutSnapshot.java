@@ -0,0 +1,168 @@
+package de.danielstein.gridgraph;
+
+import org.javatuples.Pair;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Immutable, thread safe view of one layout, for readers that must not see a {@link GridGraph} while it is
+ * changed: {@link GridGraph#getVertex(Object)} fills its lookup lazily and the swaps move the tiles in place.
+ *
+ * A snapshot only references an immutable {@link CompactGrid} and tables built in the constructor, all in final
+ * fields, so it can be handed to any number of threads without locking. Positions are looked up in O(1) by
+ * domain object, edges are the connections between the domain objects, fake vertices are hidden.
+ * New layouts are handed to the readers with a {@link Publisher}.
+ * @param <T> Type of the domainObjects
+ */
+public final class LayoutSnapshot<T> {
+
+    private final CompactGrid grid;
+    private final int crossings;
+    /** Vertex number in the grid of every domain object */
+    private final Map<T, Integer> vertexOf;
+    /** Domain edges ordered by source, the edges of a source are edges[edgeOffsets[v]..edgeOffsets[v+1]-1] */
+    private final List<Pair<T, T>> edges;
+    private final int[] edgeOffsets;
+
+    public LayoutSnapshot(CompactGrid grid) {
+        this.grid = grid;
+        crossings = grid.countCrossings();
+        int vertexCount = grid.getVertexCount();
+        vertexOf = new HashMap<>(vertexCount * 2);
+        List<Pair<T, T>> domainEdges = new ArrayList<>(grid.getEdgeCount());
+        edgeOffsets = new int[vertexCount + 1];
+        for (int v = 0; v < vertexCount; v++) {
+            edgeOffsets[v] = domainEdges.size();
+            if (grid.isFake(v)) {
+                continue;
+            }
+            vertexOf.put(domainObj(v), v);
+            for (int e = grid.outOffsets[v]; e < grid.outOffsets[v + 1]; e++) {
+                int target = grid.outTargets[e];
+                // a fake has exactly one outgoing edge
+                while (grid.isFake(target)) {
+                    target = grid.outTargets[grid.outOffsets[target]];
+                }
+                domainEdges.add(Pair.with(domainObj(v), domainObj(target)));
+            }
+        }
+        edgeOffsets[vertexCount] = domainEdges.size();
+        edges = Collections.unmodifiableList(domainEdges);
+    }
+
+    /** @param preparedGraph a graph after {@link GridGraph#prepare()}, it is copied. */
+    public static <T> LayoutSnapshot<T> of(GridGraph<T> preparedGraph) {
+        return new LayoutSnapshot<>(new CompactGrid(preparedGraph));
+    }
+
+    /** @param layout it is copied, so it may be changed further afterwards */
+    public static <T> LayoutSnapshot<T> of(GridLayout layout) {
+        return new LayoutSnapshot<>(layout.toCompactGrid());
+    }
+
+    public CompactGrid getGrid() {
+        return grid;
+    }
+
+    public int getCrossings() {
+        return crossings;
+    }
+
+    public int getLayerCount() {
+        return grid.getLayerCount();
+    }
+
+    public int getRowCount() {
+        return grid.getRowCount();
+    }
+
+    public boolean contains(T domainObj) {
+        return vertexOf.containsKey(domainObj);
+    }
+
+    /** @return the layer of the domain object, -1 if it is not part of the layout */
+    public int getLayer(T domainObj) {
+        Integer v = vertexOf.get(domainObj);
+        return v == null ? -1 : grid.getLayer(v);
+    }
+
+    /** @return the row of the domain object, -1 if it is not part of the layout */
+    public int getRow(T domainObj) {
+        Integer v = vertexOf.get(domainObj);
+        return v == null ? -1 : grid.getRow(v);
+    }
+
+    /** @return layer and row of the domain object, null if it is not part of the layout */
+    public Pair<Integer, Integer> getPosition(T domainObj) {
+        Integer v = vertexOf.get(domainObj);
+        return v == null ? null : Pair.with(grid.getLayer(v), grid.getRow(v));
+    }
+
+    /** @return the domain object at the given position, null for a spacer or a fake vertex */
+    public T getDomainObj(int layer, int row) {
+        int v = grid.vertexAt(layer, row);
+        return v < 0 ? null : domainObj(v);
+    }
+
+    /** All edges (source, target) between the domain objects, read only */
+    public List<Pair<T, T>> getEdges() {
+        return edges;
+    }
+
+    /** @return the edges starting at the domain object, read only and empty if it is not part of the layout */
+    public List<Pair<T, T>> getEdges(T source) {
+        Integer v = vertexOf.get(source);
+        return v == null ? Collections.emptyList() : edges.subList(edgeOffsets[v], edgeOffsets[v + 1]);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T domainObj(int vertex) {
+        return (T) grid.getDomainObj(vertex);
+    }
+
+    @Override
+    public String toString() {
+        return "LayoutSnapshot{crossings=" + crossings + ", layers=" + getLayerCount() + ", rows=" + getRowCount()
+                + '}';
+    }
+
+    /**
+     * Hands the latest snapshot from a writer, e.g. the {@link GridLayoutEngine}, to any number of readers.
+     * Readers call {@link #current()} for every request and keep working with that snapshot, even if a newer one
+     * is published meanwhile.
+     */
+    public static final class Publisher<T> {
+
+        private final AtomicReference<LayoutSnapshot<T>> current = new AtomicReference<>();
+
+        /** @return the latest snapshot, null if nothing has been published yet */
+        public LayoutSnapshot<T> current() {
+            return current.get();
+        }
+
+        public void publish(LayoutSnapshot<T> snapshot) {
+            current.set(snapshot);
+        }
+
+        /**
+         * Publishes the snapshot only if it has fewer crossings than the current one, for several writers
+         * working on the same graph.
+         * @return true if it was published
+         */
+        public boolean publishIfBetter(LayoutSnapshot<T> snapshot) {
+            LayoutSnapshot<T> previous;
+            do {
+                previous = current.get();
+                if (previous != null && previous.getCrossings() <= snapshot.getCrossings()) {
+                    return false;
+                }
+            } while (!current.compareAndSet(previous, snapshot));
+            return true;
+        }
+    }
+}
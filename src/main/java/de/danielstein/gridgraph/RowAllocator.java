@@ -0,0 +1,83 @@
+package de.danielstein.gridgraph;
+
+import java.util.Arrays;
+
+/**
+ * Occupied rows of every layer as bitsets (one long per 64 rows), for placing vertices together with their
+ * fake chain: {@link #firstFreeRow(int, int)} ORs the words of all layers of the chain and takes the lowest
+ * zero bit, so a row is found with one pass over 64 rows at a time instead of probing row by row.
+ * The number of rows grows, if no row is free.
+ */
+class RowAllocator {
+
+    private final long[][] occupied;
+    private int rowCount;
+
+    RowAllocator(int layerCount, int rowCount) {
+        this.rowCount = rowCount;
+        occupied = new long[layerCount][words(rowCount)];
+    }
+
+    int getRowCount() {
+        return rowCount;
+    }
+
+    /** @return the lowest row free on all layers fromLayer..toLayer (inclusive), rowCount if there is none */
+    int firstFreeRow(int fromLayer, int toLayer) {
+        int words = words(rowCount);
+        for (int w = 0; w < words; w++) {
+            long used = 0;
+            for (int l = fromLayer; l <= toLayer && used != -1L; l++) {
+                used |= occupied[l][w];
+            }
+            if (used != -1L) {
+                int row = w * 64 + Long.numberOfTrailingZeros(~used);
+                return Math.min(row, rowCount);
+            }
+        }
+        return rowCount;
+    }
+
+    /** Marks the row as used on the layers fromLayer..toLayer (inclusive), adding rows if needed. */
+    void occupy(int fromLayer, int toLayer, int row) {
+        if (row >= rowCount) {
+            rowCount = row + 1;
+            ensureCapacity();
+        }
+        for (int l = fromLayer; l <= toLayer; l++) {
+            occupied[l][row >>> 6] |= 1L << row;
+        }
+    }
+
+    /**
+     * Closes the gaps of rows unused on all layers.
+     * @return the new index of every row, -1 for the unused ones
+     */
+    int[] compactRows() {
+        int[] newRow = new int[rowCount];
+        int next = 0;
+        for (int w = 0; w < words(rowCount); w++) {
+            long used = 0;
+            for (long[] layer : occupied) {
+                used |= layer[w];
+            }
+            for (int bit = 0; bit < 64 && w * 64 + bit < rowCount; bit++) {
+                newRow[w * 64 + bit] = (used & (1L << bit)) != 0 ? next++ : -1;
+            }
+        }
+        return newRow;
+    }
+
+    private void ensureCapacity() {
+        int words = words(rowCount);
+        for (int l = 0; l < occupied.length; l++) {
+            if (occupied[l].length < words) {
+                occupied[l] = Arrays.copyOf(occupied[l], Math.max(words, 2 * occupied[l].length));
+            }
+        }
+    }
+
+    private static int words(int rows) {
+        return Math.max(1, (rows + 63) >>> 6);
+    }
+}
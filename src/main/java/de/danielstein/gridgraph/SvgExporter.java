@@ -0,0 +1,153 @@
+package de.danielstein.gridgraph;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Exports a prepared {@link GridGraph} as SVG. The elements are written straight into the stream while walking
+ * the grid once, nothing but the write buffer is kept in memory.
+ *
+ * Every domain object becomes a box with its label. Every connection between two domain objects becomes one
+ * polyline: the fake vertices of a long edge are not drawn, the line just passes through their cells. A change
+ * of the row happens in the gap after the column of the source, like in {@link BoxDrawing}.
+ */
+public class SvgExporter {
+
+    private int cellWidth = 160;
+    private int cellHeight = 40;
+    private int boxWidth = 120;
+    private int boxHeight = 24;
+    private int margin = 10;
+
+    /** Horizontal distance between two layers */
+    public SvgExporter cellWidth(int cellWidth) {
+        this.cellWidth = cellWidth;
+        return this;
+    }
+
+    /** Vertical distance between two rows */
+    public SvgExporter cellHeight(int cellHeight) {
+        this.cellHeight = cellHeight;
+        return this;
+    }
+
+    /** Size of the box of a domain object, has to be smaller than the cell */
+    public SvgExporter boxSize(int boxWidth, int boxHeight) {
+        this.boxWidth = boxWidth;
+        this.boxHeight = boxHeight;
+        return this;
+    }
+
+    /**
+     * Writes the SVG document into out, encoded in UTF-8. out is flushed, but not closed.
+     */
+    public void export(GridGraph<?> graph, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        export(graph, writer);
+        writer.flush();
+    }
+
+    public void export(GridGraph<?> graph, Writer out) throws IOException {
+        List<List<Tile>> layers = graph.layers;
+        int rowCount = layers.stream().mapToInt(List::size).max().orElse(0);
+        int width = layers.size() * cellWidth + 2 * margin;
+        int height = rowCount * cellHeight + 2 * margin;
+
+        out.write("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"" + width + "\" height=\"" + height
+                + "\" viewBox=\"0 0 " + width + ' ' + height + "\">\n");
+        out.write("<defs><marker id=\"arrow\" viewBox=\"0 0 10 10\" refX=\"10\" refY=\"5\" markerWidth=\"6\" "
+                + "markerHeight=\"6\" orient=\"auto\"><path d=\"M0,0 L10,5 L0,10 z\"/></marker></defs>\n");
+        out.write("<style>rect{fill:#f4f6f8;stroke:#34495e}text{font:12px sans-serif;dominant-baseline:middle;"
+                + "text-anchor:middle}polyline{fill:none;stroke:#34495e;marker-end:url(#arrow)}</style>\n");
+
+        out.write("<g class=\"edges\">\n");
+        for (List<Tile> layer : layers) {
+            for (Tile tile : layer) {
+                if (tile.isDomainObject()) {
+                    for (Edge edge : tile.sourceEdges) {
+                        writeConnection(out, (Vertex) tile, edge.getTarget());
+                    }
+                }
+            }
+        }
+        out.write("</g>\n<g class=\"nodes\">\n");
+        for (List<Tile> layer : layers) {
+            for (Tile tile : layer) {
+                if (tile.isDomainObject()) {
+                    writeNode(out, (Vertex) tile);
+                }
+            }
+        }
+        out.write("</g>\n</svg>\n");
+    }
+
+    /** One polyline from the source via all fakes to the next domain object */
+    private void writeConnection(Writer out, Vertex source, Vertex next) throws IOException {
+        out.write("<polyline points=\"");
+        int x = left(source.getLayer()) + boxWidth;
+        int y = middle(source.getRow());
+        writePoint(out, x, y);
+        Vertex current = source;
+        while (true) {
+            int nextY = middle(next.getRow());
+            if (nextY != y) {
+                // bend in the gap after the current column
+                int gapX = left(current.getLayer()) + (boxWidth + cellWidth) / 2;
+                writePoint(out, gapX, y);
+                writePoint(out, gapX, nextY);
+                y = nextY;
+            }
+            if (next.isDomainObject() || next.sourceEdges.isEmpty()) {
+                break;
+            }
+            // a fake has exactly one outgoing edge
+            current = next;
+            next = next.sourceEdges.get(0).getTarget();
+        }
+        writePoint(out, left(next.getLayer()), y);
+        out.write("\"/>\n");
+    }
+
+    private void writeNode(Writer out, Vertex vertex) throws IOException {
+        int x = left(vertex.getLayer());
+        int y = middle(vertex.getRow()) - boxHeight / 2;
+        out.write("<rect x=\"" + x + "\" y=\"" + y + "\" width=\"" + boxWidth + "\" height=\"" + boxHeight
+                + "\" rx=\"4\"/><text x=\"" + (x + boxWidth / 2) + "\" y=\"" + middle(vertex.getRow()) + "\">");
+        writeEscaped(out, String.valueOf(vertex.getDomainObj()));
+        out.write("</text>\n");
+    }
+
+    private int left(int layer) {
+        return margin + layer * cellWidth;
+    }
+
+    private int middle(int row) {
+        return margin + row * cellHeight + cellHeight / 2;
+    }
+
+    private static void writePoint(Writer out, int x, int y) throws IOException {
+        out.write(Integer.toString(x));
+        out.write(',');
+        out.write(Integer.toString(y));
+        out.write(' ');
+    }
+
+    private static void writeEscaped(Writer out, String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<': out.write("&lt;"); break;
+                case '>': out.write("&gt;"); break;
+                case '&': out.write("&amp;"); break;
+                case '"': out.write("&quot;"); break;
+                case '\'': out.write("&apos;"); break;
+                default: out.write(c);
+            }
+        }
+    }
+}
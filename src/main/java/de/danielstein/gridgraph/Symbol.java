@@ -37,10 +37,28 @@ public enum Symbol {
         return character + " - " + description;
     }
 
+    // merge results of all combinations, indexed by the ordinals of existing and incoming symbol
+    private static final Symbol[][] MERGED;
+
+    static {
+        Symbol[] symbols = values();
+        MERGED = new Symbol[symbols.length][symbols.length];
+        for (Symbol existing : symbols) {
+            for (Symbol incoming : symbols) {
+                MERGED[existing.ordinal()][incoming.ordinal()] = computeMerge(existing, incoming);
+            }
+        }
+    }
+
     /**
      * Logische Ersetzung zweier Symbole.
+     * Lookup in einer vorberechneten Tabelle, @see #computeMerge(Symbol, Symbol)
      */
     public static Symbol merge(Symbol existing, Symbol incoming) {
+        return MERGED[existing.ordinal()][incoming.ordinal()];
+    }
+
+    private static Symbol computeMerge(Symbol existing, Symbol incoming) {
 
         if (existing == SPACE) return incoming;
         if (incoming == SPACE) return existing;
@@ -1,8 +1,7 @@
 package de.danielstein.gridgraph;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
+import java.util.LinkedHashSet;
 import java.util.stream.Collectors;
 
 
@@ -19,17 +18,45 @@ public class Vertex  extends Tile{
 
 
     public Vertex(int id, Object domainObj) {
-        super(new ArrayList<>(), new ArrayList<>());
+        super(new EdgeList(), new EdgeList());
         this.id = id;
         this.domainObj = domainObj;
     }
 
+    /** @return a copy of the sources of the incoming edges, in adding order */
     public Collection<Vertex> incomingEdgesFrom() {
-        return targetEdges.stream().map(e-> e.source).collect(Collectors.toSet());
+        return targetEdges.stream().map(e-> e.source).collect(Collectors.toCollection(LinkedHashSet::new));
     }
 
+    /** @return a copy of the targets of the outgoing edges, in adding order */
     public Collection<Vertex> outgoingEdgesTo() {
-        return sourceEdges.stream().map(e-> e.target).collect(Collectors.toSet());
+        return sourceEdges.stream().map(e-> e.target).collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    // ---- neighbours by index, without creating collections ----
+
+    public int getInDegree() {
+        return targetEdges.size();
+    }
+
+    public int getOutDegree() {
+        return sourceEdges.size();
+    }
+
+    /** Closes the holes removed edges left in the edge lists, @see EdgeList#trimToSize() */
+    void trimEdges() {
+        ((EdgeList) sourceEdges).trimToSize();
+        ((EdgeList) targetEdges).trimToSize();
+    }
+
+    /** @return the source of the i-th incoming edge, O(1) unless edges were removed since {@link #trimEdges()} */
+    public Vertex getSource(int i) {
+        return targetEdges.get(i).source;
+    }
+
+    /** @return the target of the i-th outgoing edge, O(1) unless edges were removed since {@link #trimEdges()} */
+    public Vertex getTarget(int i) {
+        return sourceEdges.get(i).target;
     }
 
     public boolean isFake() {
@@ -0,0 +1,195 @@
+package de.danielstein.gridgraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Spatial index of a prepared {@link GridGraph} for viewports, which show only a rectangle of layers and rows.
+ *
+ * In a prepared graph every edge leads from one layer to the next, so the edges are grouped by the layer of their
+ * source. Per layer they form an interval index over the rows they span: sorted by their upper row, with the
+ * maximal lower row of every subtree of the implicit binary tree over that order. A query for the rows
+ * from..to therefore visits only O(log n + k) edges of a layer, k being the number of edges found.
+ * Panning a viewport costs time proportional to the viewport, not to the whole plan.
+ *
+ * The index reflects the graph at the time it was built, it has to be rebuilt after the graph was changed.
+ */
+public class ViewportIndex {
+
+    private final GridGraph<?> graph;
+    private final int layerCount;
+    private final int rowCount;
+    private final int longestDomainObj;
+    private final LayerEdges[] layerEdges;
+
+    public ViewportIndex(GridGraph<?> preparedGraph) {
+        graph = preparedGraph;
+        List<List<Tile>> layers = preparedGraph.layers;
+        layerCount = layers.size();
+        rowCount = layerCount == 0 ? 0 : layers.get(0).size();
+        layerEdges = new LayerEdges[layerCount];
+        int longest = 0;
+        for (int l = 0; l < layerCount; l++) {
+            List<Edge> edges = new ArrayList<>();
+            for (Tile tile : layers.get(l)) {
+                if (tile.isDomainObject()) {
+                    longest = Math.max(longest, ((Vertex) tile).getDomainObj().toString().length());
+                }
+                edges.addAll(tile.sourceEdges);
+            }
+            layerEdges[l] = new LayerEdges(edges);
+        }
+        longestDomainObj = longest;
+    }
+
+    public int getLayerCount() {
+        return layerCount;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /** Length of the longest domain object label, which determines the width of a layer in a drawing */
+    public int getLongestDomainObj() {
+        return longestDomainObj;
+    }
+
+    /**
+     * @return the vertices inside the rectangle, both corners included, layer by layer. Spacers are skipped, the
+     * rectangle is clipped to the grid.
+     */
+    public List<Vertex> getVertices(int fromLayer, int fromRow, int toLayer, int toRow) {
+        List<Vertex> vertices = new ArrayList<>();
+        for (int l = Math.max(fromLayer, 0); l <= Math.min(toLayer, layerCount - 1); l++) {
+            for (int row = Math.max(fromRow, 0); row <= Math.min(toRow, rowCount - 1); row++) {
+                Tile tile = graph.getTile(l, row);
+                if (!tile.isSpacer()) {
+                    vertices.add((Vertex) tile);
+                }
+            }
+        }
+        return vertices;
+    }
+
+    /**
+     * @return the edges intersecting the rectangle, both corners included: an edge between the layers l and l+1
+     * intersects it, if one of these layers and one of the rows it spans are inside. Ordered by source layer,
+     * then by source row.
+     */
+    public List<Edge> getEdges(int fromLayer, int fromRow, int toLayer, int toRow) {
+        List<Edge> edges = new ArrayList<>();
+        for (int l = Math.max(fromLayer - 1, 0); l <= Math.min(toLayer, layerCount - 1); l++) {
+            LayerEdges index = layerEdges[l];
+            for (int e : index.query(fromRow, toRow)) {
+                edges.add(index.edges[e]);
+            }
+        }
+        return edges;
+    }
+
+    /**
+     * @return the edges starting at the given layer spanning at least one of the rows, as their position among the
+     * outgoing edges of the layer ordered by source row (@see {@link #getEdge(int, int)}). Sorted ascending.
+     */
+    int[] query(int layer, int fromRow, int toRow) {
+        return layerEdges[layer].query(fromRow, toRow);
+    }
+
+    Edge getEdge(int layer, int e) {
+        return layerEdges[layer].edges[e];
+    }
+
+    int getTopRow(int layer, int e) {
+        return layerEdges[layer].top[e];
+    }
+
+    int getBottomRow(int layer, int e) {
+        return layerEdges[layer].bottom[e];
+    }
+
+    /** Interval index of the edges starting at one layer */
+    private static class LayerEdges {
+
+        /** In the order of the layer: by source row, then in the order of the source */
+        final Edge[] edges;
+        final int[] top;
+        final int[] bottom;
+        /** Edge numbers sorted by upper row */
+        final int[] byTop;
+        /** Max lower row of the subtree at the middle of every range of the implicit tree over byTop */
+        final int[] maxBottom;
+
+        LayerEdges(List<Edge> layerEdges) {
+            int n = layerEdges.size();
+            edges = layerEdges.toArray(new Edge[0]);
+            top = new int[n];
+            bottom = new int[n];
+            long[] sorted = new long[n];
+            for (int e = 0; e < n; e++) {
+                int sourceRow = edges[e].getSource().getRow();
+                int targetRow = edges[e].getTarget().getRow();
+                top[e] = Math.min(sourceRow, targetRow);
+                bottom[e] = Math.max(sourceRow, targetRow);
+                sorted[e] = ((long) top[e] << 32) | e;
+            }
+            Arrays.sort(sorted);
+            byTop = new int[n];
+            for (int i = 0; i < n; i++) {
+                byTop[i] = (int) sorted[i];
+            }
+            maxBottom = new int[n];
+            build(0, n);
+        }
+
+        private int build(int lo, int hi) {
+            if (lo >= hi) {
+                return Integer.MIN_VALUE;
+            }
+            int mid = (lo + hi) >>> 1;
+            int max = Math.max(bottom[byTop[mid]], Math.max(build(lo, mid), build(mid + 1, hi)));
+            maxBottom[mid] = max;
+            return max;
+        }
+
+        int[] query(int fromRow, int toRow) {
+            Hits hits = new Hits();
+            collect(0, byTop.length, fromRow, toRow, hits);
+            int[] found = Arrays.copyOf(hits.edges, hits.count);
+            Arrays.sort(found);
+            return found;
+        }
+
+        private void collect(int lo, int hi, int fromRow, int toRow, Hits hits) {
+            if (lo >= hi) {
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            if (maxBottom[mid] < fromRow) {
+                return;
+            }
+            collect(lo, mid, fromRow, toRow, hits);
+            int e = byTop[mid];
+            if (top[e] > toRow) {
+                return;
+            }
+            if (bottom[e] >= fromRow) {
+                hits.add(e);
+            }
+            collect(mid + 1, hi, fromRow, toRow, hits);
+        }
+    }
+
+    private static class Hits {
+        int[] edges = new int[16];
+        int count;
+
+        void add(int e) {
+            if (count == edges.length) {
+                edges = Arrays.copyOf(edges, count * 2);
+            }
+            edges[count++] = e;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package de.danielstein.gridgraph;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AWABatchConverterTest {
+
+    @Test
+    void convertDirectory(@TempDir Path dir) throws IOException, InterruptedException {
+        Path sample = Path.of("src/test/resources/jobp-small.json");
+        Files.createDirectories(dir.resolve("sub"));
+        for (int i = 0; i < 10; i++) {
+            Files.copy(sample, dir.resolve("jobp" + i + ".json"));
+        }
+        Files.copy(sample, dir.resolve("sub/nested.json"));
+        Files.copy(sample, dir.resolve("ignored.txt"));
+        Files.writeString(dir.resolve("broken.json"), "{\"data\":{\"jobp\":{\"line_conditions\":[{\"workflow");
+        Files.writeString(dir.resolve("huge.json"), " ".repeat(100_000));
+
+        Map<Path, GridGraph<?>> graphs = new ConcurrentHashMap<>();
+        Map<Path, Exception> failures = new ConcurrentHashMap<>();
+        long converted = new AWABatchConverter()
+                .threads(3)
+                .maxInFlight(2)
+                .maxFileSize(50_000)
+                .convert(dir, "*.json", new AWABatchConverter.Sink() {
+                    @Override
+                    public void accept(Path file, GridGraph<?> graph) {
+                        graphs.put(dir.relativize(file), graph);
+                    }
+
+                    @Override
+                    public void failed(Path file, Exception e) {
+                        failures.put(dir.relativize(file), e);
+                    }
+                });
+
+        assertEquals(10, converted);
+        assertEquals(10, graphs.size());
+        String expected = new AWAConverter(sample).convert().toString();
+        graphs.values().forEach(graph -> assertEquals(expected, graph.toString()));
+        assertEquals(2, failures.size());
+        assertTrue(failures.containsKey(Path.of("broken.json")));
+        assertTrue(failures.get(Path.of("huge.json")).getMessage().contains("maximum"));
+    }
+
+    @Test
+    void timeoutStartsWithTheConversion(@TempDir Path dir) throws IOException, InterruptedException {
+        Path sample = Path.of("src/test/resources/jobp-small.json");
+        for (int i = 0; i < 6; i++) {
+            Files.copy(sample, dir.resolve("jobp" + i + ".json"));
+        }
+        Map<Path, Exception> failures = new ConcurrentHashMap<>();
+        // one worker and a slow sink: the files wait in the queue longer than the timeout, but none is converted
+        // slower than that
+        long converted = new AWABatchConverter()
+                .threads(1)
+                .maxInFlight(6)
+                .timeout(Duration.ofSeconds(1))
+                .convert(dir, "*.json", new AWABatchConverter.Sink() {
+                    @Override
+                    public void accept(Path file, GridGraph<?> graph) {
+                        try {
+                            Thread.sleep(300);
+                        } catch (InterruptedException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }
+
+                    @Override
+                    public void failed(Path file, Exception e) {
+                        failures.put(file, e);
+                    }
+                });
+        assertEquals(Map.of(), failures);
+        assertEquals(6, converted);
+    }
+}
@@ -5,6 +5,8 @@ import org.junit.jupiter.api.Test;
 import java.io.IOException;
 import java.nio.file.Path;
 
+import static org.junit.jupiter.api.Assertions.*;
+
 public class AWAConverterTest {
 
     @Test
@@ -15,4 +17,16 @@ public class AWAConverterTest {
         BoxDrawing drawing = new BoxDrawing(gridGraph);
         System.out.println(drawing.draw());
     }
+
+    @Test
+    public void convertStreaming() throws IOException {
+        AWAConverter converter = new AWAConverter(Path.of("src/test/resources/jobp-small.json"));
+        @SuppressWarnings("unchecked")
+        GridGraph<Integer> streamed = (GridGraph<Integer>) converter.convertStreaming();
+        GridGraph<?> tree = converter.convert();
+        assertEquals(tree.toString(), streamed.toString());
+        assertEquals(4, streamed.getVertex(8).getLayer());
+        assertNull(streamed.getVertex(99));
+        assertNull(streamed.getVertex(77));
+    }
 }
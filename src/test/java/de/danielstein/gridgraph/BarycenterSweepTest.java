@@ -0,0 +1,37 @@
+package de.danielstein.gridgraph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BarycenterSweepTest extends AbstractTest {
+
+    @Test
+    void layout() {
+        for (GridGraph<?> graph : Arrays.asList(generateComplexJPL().prepare(), generateJPLkbm002().prepare(),
+                generateJPLWithTwoMajorPaths().prepare(), generateJPL().prepare())) {
+            GridGraph<?> swept = new BarycenterSweep().layout(graph);
+            assertTrue(swept.countCrossings() <= graph.countCrossings());
+        }
+    }
+
+    @Test
+    void deterministicAndAligned() {
+        GridLayout start = new GridLayout(generateComplexJPL().prepare());
+        Random random = new Random(4711);
+        for (int i = 0; i < 50; i++) {
+            start.mutate(random);
+        }
+        BarycenterSweep sweep = new BarycenterSweep();
+        GridLayout first = sweep.optimize(start);
+        assertEquals(first.toString(), sweep.optimize(start).toString());
+        assertTrue(first.countCrossings() <= start.countCrossings());
+        GridGraph<?> graph = first.toGridGraph();
+        graph.layers.stream().flatMap(List::stream).filter(Tile::isFake).forEach(fake ->
+                assertEquals(fake.getRow(), fake.sourceEdges.get(0).target.getRow()));
+    }
+}
@@ -1,6 +1,12 @@
 package de.danielstein.gridgraph;
 
 import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Random;
+
 import  static de.danielstein.gridgraph.Symbol.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -18,6 +24,68 @@ public class BoxDrawingTest extends GridGraphTest{
         assertBothWays(T_LEFT,CORNER_BOTTOM_LEFT,CORNER_TOP_LEFT);
     }
 
+    @Test
+    public void rendererMatchesDraw() throws IOException {
+        Random random = new Random(7);
+        for (GridGraph<?> graph : Arrays.asList(generateJPL().prepare(), generateCrossedPlan().prepare(),
+                generateComplexJPL().prepare(), generateJPLkbm002().prepare())) {
+            for (int i = 0; i < 20; i++) {
+                String expected = new BoxDrawing(graph).draw();
+                assertEquals(expected, new BoxDrawingRenderer(graph).render());
+                StringWriter writer = new StringWriter();
+                new BoxDrawing(graph).draw(writer);
+                assertEquals(expected, writer.toString());
+                graph.mutate(random);
+            }
+        }
+    }
+
+    @Test
+    public void windowMatchesCropOfRender() {
+        Random random = new Random(11);
+        for (GridGraph<?> graph : Arrays.asList(generateComplexJPL().prepare(), generateJPLkbm002().prepare())) {
+            graph.mutate(random);
+            BoxDrawingRenderer renderer = new BoxDrawingRenderer(graph);
+            String[] lines = renderer.render().split("\n");
+            int layerCount = graph.getLayers().size();
+            int rowCount = lines.length;
+            int layerWidth = lines[0].length() / layerCount;
+            for (int fromLayer = 0; fromLayer < layerCount; fromLayer++) {
+                for (int toLayer = fromLayer; toLayer < layerCount; toLayer++) {
+                    for (int fromRow = 0; fromRow < rowCount; fromRow++) {
+                        for (int toRow = fromRow; toRow < rowCount; toRow++) {
+                            StringBuilder expected = new StringBuilder();
+                            for (int row = fromRow; row <= toRow; row++) {
+                                expected.append(lines[row], fromLayer * layerWidth, (toLayer + 1) * layerWidth)
+                                        .append('\n');
+                            }
+                            assertEquals(expected.toString(), renderer.render(fromLayer, fromRow, toLayer, toRow));
+                        }
+                    }
+                }
+            }
+            // clipped to the grid
+            assertEquals(renderer.render(), renderer.render(-5, -5, layerCount + 5, rowCount + 5));
+            assertEquals("", renderer.render(layerCount, 0, layerCount + 1, rowCount));
+            // the index follows changes of the graph
+            for (int i = 0; i < 20; i++) {
+                graph.mutate(random);
+                assertEquals(renderer.render(), renderer.render(0, 0, layerCount - 1, Integer.MAX_VALUE));
+            }
+        }
+    }
+
+    @Test
+    public void windowAfterReplacingAnEdge() {
+        GridGraph<Integer> graph = new GridGraph<Integer>().addEdge(1, 3).addEdge(2, 3).addEdge(2, 4).prepare();
+        BoxDrawingRenderer renderer = new BoxDrawingRenderer(graph);
+        assertEquals(renderer.render(), renderer.render(0, 0, Integer.MAX_VALUE, Integer.MAX_VALUE));
+        // neither a tile moves nor the edge count changes
+        graph.deleteEdge(1, 3);
+        graph.insertEdge(1, 4);
+        assertEquals(renderer.render(), renderer.render(0, 0, Integer.MAX_VALUE, Integer.MAX_VALUE));
+    }
+
     private void assertBothWays(Symbol merged, Symbol one, Symbol two) {
         assertEquals(merged, merge(one,two));
         assertEquals(merged, merge(two,one));
@@ -0,0 +1,61 @@
+package de.danielstein.gridgraph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompactGridTest extends AbstractTest {
+
+    @Test
+    void roundTrip() {
+        for (GridGraph<?> graph : Arrays.asList(generateComplexJPL().prepare(), generateJPLkbm002().prepare(),
+                generateJPL().prepare())) {
+            graph.mutate(new Random(4711));
+            CompactGrid grid = new CompactGrid(graph);
+            GridGraph<Object> back = grid.toGridGraph();
+            assertEquals(graph.toString(), back.toString());
+            assertEquals(graph.countCrossings(), grid.countCrossings());
+            assertEquals(graph.countCrossings(), back.countCrossings());
+            assertEquals(graph.vertexSequence.get(), back.vertexSequence.get());
+        }
+    }
+
+    @Test
+    void crossingLowerBound() {
+        // K2,2 between two layers can not be drawn without a crossing
+        GridGraph<Integer> k22 = new GridGraph<>();
+        k22.addEdge(1, 3).addEdge(1, 4).addEdge(2, 3).addEdge(2, 4);
+        assertEquals(1, k22.prepare().crossingLowerBound());
+        assertEquals(0, generateJPL().prepare().crossingLowerBound());
+
+        Random random = new Random(17);
+        for (GridGraph<?> graph : Arrays.asList(generateComplexJPL().prepare(), generateJPLkbm002().prepare(),
+                generateCrossedPlan().prepare(), k22)) {
+            int bound = new CompactGrid(graph).crossingLowerBound();
+            GridLayout layout = new GridLayout(graph);
+            for (int i = 0; i < 2000; i++) {
+                layout.mutate(random);
+                assertTrue(layout.countCrossings() >= bound);
+            }
+        }
+    }
+
+    @Test
+    void structure() {
+        GridGraph<Integer> graph = generateJPLkbm002().prepare();
+        CompactGrid grid = new CompactGrid(graph);
+        assertEquals(graph.getSourceEdges().size(), grid.getEdgeCount());
+        assertEquals(graph.layers.size(), grid.getLayerCount());
+        Vertex ten = graph.getVertex(10);
+        int v = grid.vertexAt(ten.getLayer(), ten.getRow());
+        assertEquals(10, grid.getDomainObj(v));
+        assertTrue(grid.incomingFake[v] >= 0);
+        assertTrue(grid.isFake(grid.incomingFake[v]));
+        Vertex tenBack = grid.<Integer>toGridGraph().getVertex(10);
+        assertEquals(ten.getLayer(), tenBack.getLayer());
+        assertEquals(ten.getRow(), tenBack.getRow());
+    }
+}
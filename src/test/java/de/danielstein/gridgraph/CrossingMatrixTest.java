@@ -0,0 +1,65 @@
+package de.danielstein.gridgraph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CrossingMatrixTest extends AbstractTest {
+
+    private List<GridGraph<?>> graphs() {
+        return Arrays.asList(generateComplexJPL().prepare(), generateJPLkbm002().prepare(),
+                generateJPLWithTwoMajorPaths().prepare(), generateJPL().prepare(), generateCrossedPlan().prepare());
+    }
+
+    @Test
+    void crossings() {
+        Random random = new Random(4711);
+        for (GridGraph<?> graph : graphs()) {
+            for (int i = 0; i < 50; i++) {
+                graph.mutate(random);
+                assertEquals(graph.countCrossings(), new CrossingMatrix(graph).crossings());
+            }
+        }
+    }
+
+    @Test
+    void swapDelta() {
+        Random random = new Random(4711);
+        for (GridGraph<?> graph : graphs()) {
+            for (int i = 0; i < 200; i++) {
+                CrossingMatrix matrix = new CrossingMatrix(graph);
+                int layer = random.nextInt(graph.layers.size());
+                int rows = graph.layers.get(layer).size();
+                int a = random.nextInt(rows);
+                int b = random.nextInt(rows);
+                int before = graph.countCrossings();
+                graph.swap(layer, a, b);
+                assertEquals(graph.countCrossings() - before, matrix.swapDelta(layer, a, b));
+            }
+        }
+    }
+
+    @Test
+    void rowSwapDelta() {
+        Random random = new Random(4711);
+        for (GridGraph<?> graph : graphs()) {
+            for (int i = 0; i < 200; i++) {
+                CrossingMatrix matrix = new CrossingMatrix(graph);
+                int from = random.nextInt(graph.layers.size());
+                int to = from + random.nextInt(graph.layers.size() - from);
+                int rows = graph.layers.get(0).size();
+                int a = random.nextInt(rows);
+                int b = random.nextInt(rows);
+                int before = graph.countCrossings();
+                for (int l = from; l <= to; l++) {
+                    graph.swap(l, a, b);
+                }
+                assertEquals(graph.countCrossings() - before, matrix.rowSwapDelta(from, to, a, b));
+            }
+        }
+    }
+}
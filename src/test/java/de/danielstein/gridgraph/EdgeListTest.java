@@ -0,0 +1,125 @@
+package de.danielstein.gridgraph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EdgeListTest {
+
+    @Test
+    void behavesLikeArrayListWithoutDuplicates() {
+        Vertex source = new Vertex(0, "s");
+        List<Vertex> targets = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            targets.add(new Vertex(i, "t" + i));
+        }
+        EdgeList edges = new EdgeList();
+        List<Edge> expected = new ArrayList<>();
+        Random random = new Random(1);
+        for (int step = 0; step < 5000; step++) {
+            Edge edge = new Edge(source, targets.get(random.nextInt(targets.size())));
+            switch (random.nextInt(3)) {
+                case 0:
+                    assertEquals(!expected.contains(edge), edges.add(edge));
+                    if (!expected.contains(edge)) {
+                        expected.add(edge);
+                    }
+                    break;
+                case 1:
+                    assertEquals(expected.remove(edge), edges.remove(edge));
+                    break;
+                default:
+                    assertEquals(expected.contains(edge), edges.contains(edge));
+            }
+            assertEquals(expected.size(), edges.size());
+            if (step % 97 == 0) {
+                assertEquals(expected, new ArrayList<>(edges));
+                if (!expected.isEmpty()) {
+                    int i = random.nextInt(expected.size());
+                    assertEquals(expected.get(i), edges.get(i));
+                    assertEquals(i, edges.indexOf(expected.get(i)));
+                }
+            }
+        }
+        assertEquals(expected, edges);
+    }
+
+    @Test
+    void iteratorRemove() {
+        Vertex source = new Vertex(0, "s");
+        EdgeList edges = new EdgeList();
+        for (int i = 1; i <= 20; i++) {
+            edges.add(new Edge(source, new Vertex(i, "t" + i)));
+        }
+        for (Iterator<Edge> iterator = edges.iterator(); iterator.hasNext(); ) {
+            if (iterator.next().target.id % 2 == 0) {
+                iterator.remove();
+            }
+        }
+        assertEquals(10, edges.size());
+        for (int i = 0; i < edges.size(); i++) {
+            assertEquals(2 * i + 1, edges.get(i).target.id);
+            assertTrue(edges.contains(edges.get(i)));
+        }
+    }
+
+    @Test
+    void readingWhileIterating() {
+        Vertex source = new Vertex(0, "s");
+        EdgeList edges = new EdgeList();
+        for (int i = 1; i <= 20; i++) {
+            edges.add(new Edge(source, new Vertex(i, "t" + i)));
+        }
+        edges.remove(edges.get(3));
+        edges.remove(edges.get(10));
+        List<Edge> expected = new ArrayList<>(edges);
+        // holes are counted, not compacted, so the iterator stays valid
+        int i = 0;
+        for (Edge edge : edges) {
+            assertSame(edge, edges.get(i));
+            assertEquals(i, edges.indexOf(edge));
+            assertEquals(expected.get(edges.size() - 1), edges.get(edges.size() - 1));
+            i++;
+        }
+        assertEquals(18, i);
+    }
+
+    @Test
+    void trimToSize() {
+        Vertex source = new Vertex(0, "s");
+        List<Edge> all = new ArrayList<>();
+        EdgeList edges = new EdgeList();
+        for (int i = 1; i <= 20; i++) {
+            all.add(new Edge(source, new Vertex(i, "t" + i)));
+            edges.add(all.get(i - 1));
+        }
+        for (int i = 0; i < 20; i += 3) {
+            edges.remove(all.get(i));
+        }
+        List<Edge> expected = new ArrayList<>(edges);
+        edges.trimToSize();
+        assertEquals(expected, edges);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(i, edges.indexOf(expected.get(i)));
+        }
+        assertTrue(edges.add(all.get(0)));
+        assertEquals(expected.size() + 1, edges.size());
+    }
+
+    @Test
+    void neighboursByIndex() {
+        GridGraph<String> graph = new GridGraph<>();
+        graph.addEdge("a", "b").addEdge("a", "c").addEdge("a", "b");
+        Vertex a = graph.getVertex("a");
+        assertEquals(2, a.getOutDegree());
+        assertEquals("b", a.getTarget(0).getDomainObj());
+        assertEquals("c", a.getTarget(1).getDomainObj());
+        assertEquals(1, a.getTarget(1).getInDegree());
+        assertSame(a, a.getTarget(1).getSource(0));
+    }
+}
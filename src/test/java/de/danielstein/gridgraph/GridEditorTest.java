@@ -0,0 +1,166 @@
+package de.danielstein.gridgraph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GridEditorTest extends AbstractTest {
+
+    @Test
+    void insertKeepsUnaffectedTiles() {
+        GridGraph<Integer> graph = generateComplexJPL().prepare();
+        Map<Tile, String> before = positions(graph);
+        // 16 is on the last layer, so only its incoming connections change
+        Vertex sixteen = graph.getVertex(16);
+        int lastLayer = graph.getLayers().size() - 1;
+        assertEquals(lastLayer, sixteen.getLayer());
+        graph.insertEdge(1, 16);
+
+        assertEquals(lastLayer, sixteen.getLayer());
+        assertTrue(domainEdges(graph).contains(List.of(1, 16)));
+        for (Map.Entry<Tile, String> entry : before.entrySet()) {
+            Tile tile = entry.getKey();
+            boolean chainOfTwenty = tile.isFake() && leadsTo((Vertex) tile, sixteen);
+            if (!tile.isSpacer() && !chainOfTwenty && tile != sixteen) {
+                assertEquals(entry.getValue(), tile.getLayer() + "/" + tile.getRow(), tile.toString());
+            }
+        }
+        assertConsistent(graph);
+    }
+
+    @Test
+    void movedVerticesKeepTheirRow() {
+        GridGraph<Integer> graph = new GridGraph<Integer>().addEdge(1, 2).addEdge(3, 4).prepare();
+        Vertex three = graph.getVertex(3);
+        Vertex four = graph.getVertex(4);
+        int threeRow = three.getRow();
+        int fourRow = four.getRow();
+        assertEquals(0, graph.getVertex(1).getRow());
+        assertEquals(1, threeRow);
+        // 3 and 4 move two layers to the right, the cells of their rows are free there
+        graph.insertEdge(2, 3);
+        assertEquals(2, three.getLayer());
+        assertEquals(3, four.getLayer());
+        assertEquals(threeRow, three.getRow());
+        assertEquals(fourRow, four.getRow());
+        assertConsistent(graph);
+    }
+
+    @Test
+    void randomEdits() {
+        GridGraph<Integer> graph = generateComplexJPL().prepare();
+        Set<List<Integer>> edges = domainEdges(graph);
+        Random random = new Random(4711);
+        for (int i = 0; i < 200; i++) {
+            int source = 1 + random.nextInt(20);
+            int target = 1 + random.nextInt(20);
+            List<Integer> edge = List.of(source, target);
+            if (random.nextInt(3) == 0 && !edges.isEmpty()) {
+                edge = new ArrayList<>(edges).get(random.nextInt(edges.size()));
+                graph.deleteEdge(edge.get(0), edge.get(1));
+                edges.remove(edge);
+            } else if (source == target || isReachable(edges, target, source)) {
+                assertThrows(IllegalArgumentException.class, () -> graph.insertEdge(source, target));
+            } else {
+                graph.insertEdge(source, target);
+                edges.add(edge);
+            }
+            assertEquals(edges, domainEdges(graph));
+            assertConsistent(graph);
+
+            GridGraph<Integer> fresh = new GridGraph<>();
+            edges.forEach(e -> fresh.addEdge(e.get(0), e.get(1)));
+            fresh.layering();
+            for (Vertex vertex : fresh.getDomainVertices()) {
+                assertEquals(vertex.getLayer(), graph.getVertex((Integer) vertex.getDomainObj()).getLayer());
+            }
+        }
+    }
+
+    @Test
+    void notPrepared() {
+        GridGraph<Integer> graph = generateComplexJPL();
+        assertThrows(IllegalStateException.class, () -> graph.insertEdge(1, 2));
+        assertThrows(IllegalStateException.class, () -> graph.deleteEdge(1, 2));
+    }
+
+    /** Every tile is in its cell, fakes are aligned and every domain vertex has at most one fake chain */
+    private static void assertConsistent(GridGraph<Integer> graph) {
+        int rows = graph.getLayers().get(0).size();
+        for (int l = 0; l < graph.getLayers().size(); l++) {
+            List<Tile> layer = graph.getLayers().get(l);
+            assertEquals(rows, layer.size());
+            for (int r = 0; r < rows; r++) {
+                Tile tile = layer.get(r);
+                assertEquals(l, tile.getLayer());
+                assertEquals(r, tile.getRow());
+                if (tile.isSpacer()) {
+                    continue;
+                }
+                Vertex vertex = (Vertex) tile;
+                int fakes = 0;
+                for (Edge edge : vertex.targetEdges) {
+                    assertTrue(edge.source.getLayer() < l);
+                    if (edge.source.isFake()) {
+                        fakes++;
+                        assertEquals(l - 1, edge.source.getLayer());
+                        assertEquals(r, edge.source.getRow());
+                    }
+                }
+                assertTrue(fakes <= 1);
+                if (vertex.isFake()) {
+                    assertEquals(1, vertex.sourceEdges.size());
+                    assertFalse(vertex.targetEdges.isEmpty());
+                }
+            }
+        }
+        assertEquals(graph.getEdgeCount(),
+                graph.getLayers().stream().flatMap(List::stream).mapToInt(t -> t.sourceEdges.size()).sum());
+        // builds only for an aligned grid
+        new CompactGrid(graph);
+    }
+
+    private static Set<List<Integer>> domainEdges(GridGraph<Integer> graph) {
+        Set<List<Integer>> edges = new LinkedHashSet<>();
+        for (Vertex vertex : graph.getDomainVertices()) {
+            for (Edge edge : vertex.sourceEdges) {
+                Vertex target = edge.target;
+                while (target.isFake()) {
+                    target = target.sourceEdges.get(0).target;
+                }
+                edges.add(List.of((Integer) vertex.getDomainObj(), (Integer) target.getDomainObj()));
+            }
+        }
+        return edges;
+    }
+
+    private static boolean isReachable(Set<List<Integer>> edges, int from, int to) {
+        if (from == to) {
+            return true;
+        }
+        return edges.stream().anyMatch(e -> e.get(0) == from && isReachable(edges, e.get(1), to));
+    }
+
+    private static boolean leadsTo(Vertex fake, Vertex target) {
+        Vertex vertex = fake;
+        while (vertex.isFake()) {
+            vertex = vertex.sourceEdges.get(0).target;
+        }
+        return vertex == target;
+    }
+
+    private static Map<Tile, String> positions(GridGraph<?> graph) {
+        Map<Tile, String> positions = new HashMap<>();
+        graph.getLayers().stream().flatMap(List::stream)
+                .forEach(t -> positions.put(t, t.getLayer() + "/" + t.getRow()));
+        return positions;
+    }
+}
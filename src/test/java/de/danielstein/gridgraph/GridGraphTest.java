@@ -30,6 +30,27 @@ public class GridGraphTest extends AbstractTest {
             assertEquals(i, vertex.getLayer(), vertex +" not on expected layer");
         }
     }
+    /** Eine Kette von Diamanten: exponentiell viele Pfade, muss trotzdem linear gelayert werden */
+    @Test
+    void layeringDiamondChain() {
+        GridGraph<Integer> graph = new GridGraph<>();
+        int diamonds = 500;
+        for (int i = 0; i < diamonds; i++) {
+            int top = 3 * i;
+            graph.addEdge(top, top + 1).addEdge(top, top + 2).addEdge(top + 1, top + 3).addEdge(top + 2, top + 3);
+        }
+        graph.layering();
+        assertEquals(2 * diamonds, graph.getVertex(3 * diamonds).getLayer());
+        assertEquals(2 * diamonds + 1, graph.getLayers().size());
+    }
+
+    @Test
+    void layeringCycle() {
+        GridGraph<Integer> graph = new GridGraph<>();
+        graph.addEdge(1, 2).addEdge(2, 3).addEdge(3, 2);
+        assertThrows(IllegalStateException.class, graph::layering);
+    }
+
     @Test
     void printgraph () {
         GridGraph<Integer> graph = generateComplexJPL().prepare();
@@ -187,6 +208,49 @@ Z2           S           S          F8          F9    D6(frel)           S
 
     }
 
+    @Test
+    void countCrossings() {
+        GridGraph<Integer> graph = new GridGraph<>();
+        graph.addEdge(1,2);
+        graph.addEdge(3,4);
+        graph = graph.prepare();
+        assertEquals(0, graph.countCrossings());
+        assertTrue(graph.swapTiles(1,0,1));
+        assertEquals(1, graph.countCrossings());
+    }
+
+    /** Anzahl der Crossings muss zur paarweisen Prüfung mit {@link Geom#lineIntersect} passen */
+    @Test
+    void countCrossingsMatchesPairwise() {
+        Random random = new Random(4711);
+        for (GridGraph<?> graph : Arrays.asList(generateComplexJPL().prepare(), generateJPLkbm002().prepare(),
+                generateJPLWithTwoMajorPaths().prepare(), generateJPL().prepare())) {
+            for (int i = 0; i < 200; i++) {
+                graph.mutate(random);
+                assertEquals(countPairwise(graph), graph.countCrossings());
+            }
+        }
+    }
+
+    static int countPairwise(GridGraph<?> graph) {
+        int crossings = 0;
+        for (List<Tile> layer : graph.layers) {
+            List<Edge> edges = layer.stream().flatMap(t -> t.sourceEdges.stream()).collect(Collectors.toList());
+            for (int i = 0; i < edges.size() - 1; i++) {
+                for (int j = i + 1; j < edges.size(); j++) {
+                    Edge e1 = edges.get(i);
+                    Edge e2 = edges.get(j);
+                    if (Geom.lineIntersect(
+                            e1.source.getLayer(), e1.source.getRow(), e1.target.getLayer(), e1.target.getRow(),
+                            e2.source.getLayer(), e2.source.getRow(), e2.target.getLayer(), e2.target.getRow())) {
+                        crossings++;
+                    }
+                }
+            }
+        }
+        return crossings;
+    }
+
     private static void assertFakesAlleOnOneRow(GridGraph<?> graph) {
         List<Vertex> vertexsWithIncomingFakes = graph.layers.stream().flatMap(List::stream).filter(Tile::isDomainObject).map(Vertex.class::cast)
                 .filter(v -> v.targetEdges.stream().map(Edge::getSource).anyMatch(Vertex::isFake)).collect(Collectors.toList());
@@ -337,5 +401,79 @@ Z2           S           S          F8          F9    D6(frel)           S
 //        Vertex fakeVertex = graph.get(5, 1);
 //        assertTrue(fakeVertex.isFake());
 //    }
-}
 
+    @Test
+    void fingerprint() {
+        GridGraph<Integer> graph = generateComplexJPL().prepare();
+        long start = graph.fingerprint();
+        GridGraph<Integer> clone = graph.clone();
+        assertEquals(start, clone.fingerprint());
+
+        Random random = new Random(42);
+        Map<String, Long> fingerprints = new HashMap<>();
+        for (int i = 0; i < 500; i++) {
+            if (i % 2 == 0) {
+                clone.mutate(random);
+            } else {
+                clone.swapRows(random);
+            }
+            long incremental = clone.fingerprint();
+            // recomputed from scratch on a copy with the same vertex ids and positions
+            assertEquals(incremental, new CompactGrid(clone).toGridGraph().fingerprint());
+            Long previous = fingerprints.putIfAbsent(clone.toString(), incremental);
+            assertTrue(previous == null || previous == incremental);
+        }
+        assertEquals(fingerprints.size(), new HashSet<>(fingerprints.values()).size());
+    }
+
+    @Test
+    void edgeRegistry() {
+        GridGraph<Integer> graph = generateComplexJPL().prepare();
+        assertEquals(graph.getSourceEdges().size(), graph.getEdgeCount());
+        assertEquals(new HashSet<>(graph.getSourceEdges()), new HashSet<>(graph.getEdges()));
+        int grouped = 0;
+        for (int l = 0; l < graph.getLayers().size(); l++) {
+            for (Edge edge : graph.getEdgesFromLayer(l)) {
+                assertEquals(l, edge.source.getLayer());
+                grouped++;
+            }
+        }
+        assertEquals(graph.getEdgeCount(), grouped);
+
+        GridGraph<Integer> clone = graph.clone();
+        assertEquals(graph.getEdgeCount(), clone.getEdgeCount());
+        // the clone keeps the order of the edge lists
+        for (Tile tile : graph.getLayers().stream().flatMap(List::stream).collect(Collectors.toList())) {
+            Tile cloneTile = clone.getTile(tile.getLayer(), tile.getRow());
+            assertEquals(tile.sourceEdges.toString(), cloneTile.sourceEdges.toString());
+            assertEquals(tile.targetEdges.toString(), cloneTile.targetEdges.toString());
+        }
+        assertThrows(UnsupportedOperationException.class, () -> graph.getEdges().clear());
+
+        // swaps and new spacer rows keep the layers of the vertices, so the grouping is kept
+        List<Edge> fromFirstLayer = graph.getEdgesFromLayer(1);
+        Random random = new Random(7);
+        for (int i = 0; i < 50; i++) {
+            graph.mutate(random);
+        }
+        int rows = graph.getLayers().get(0).size();
+        for (int l = 0; l < graph.getLayers().size(); l++) {
+            graph.ensureLayerHasAtLeast(l, rows + 1);
+        }
+        assertSame(fromFirstLayer, graph.getEdgesFromLayer(1));
+    }
+
+    /** Die Fakes werden in der Reihenfolge Layer/Zeile ihrer Quelle erzeugt, nicht in der Einfügereihenfolge */
+    @Test
+    void fakeIdsInRowOrder() {
+        GridGraph<String> graph = generateJPL().prepare();
+        StringBuilder ids = new StringBuilder();
+        for (List<Tile> layer : graph.getLayers()) {
+            for (Tile tile : layer) {
+                ids.append(tile.isSpacer() ? "." : String.valueOf(((Vertex) tile).id)).append(' ');
+            }
+            ids.append('\n');
+        }
+        assertEquals("1 . . \n2 . . \n3 . 8 \n4 . 9 \n10 6 7 \n5 . . \n", ids.toString());
+    }
+}
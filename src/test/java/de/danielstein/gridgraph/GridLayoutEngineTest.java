@@ -0,0 +1,98 @@
+package de.danielstein.gridgraph;
+
+import io.jenetics.engine.EvolutionStart;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GridLayoutEngineTest extends AbstractTest {
+
+    @Test
+    void layoutComplexJPL() {
+        GridGraph<Integer> graph = generateComplexJPL().prepare();
+        LayoutResult<Integer> result = new GridLayoutEngine()
+                .populationSize(50)
+                .maxDuration(Duration.ofSeconds(10))
+                .maxGenerations(200)
+                .layout(graph);
+        assertTrue(result.getGenerations() <= 200);
+        assertEquals(result.getCrossings(), result.getGraph().countCrossings());
+        assertEquals(graph.getVertex(16).getLayer(), result.getGraph().getVertex(16).getLayer());
+    }
+
+    @Test
+    void steadyFitness() {
+        LayoutResult<String> result = new GridLayoutEngine()
+                .populationSize(20)
+                .maxDuration(null)
+                .steadyFitness(10)
+                .layout(generateCrossedPlan().prepare());
+        assertEquals(0, result.getCrossings());
+        assertNotNull(result.getGraph().getVertex("ende"));
+    }
+
+    @Test
+    void stopsAtLowerBound() {
+        // K2,2 needs one crossing, the second part none
+        GridGraph<Integer> graph = new GridGraph<>();
+        graph.addEdge(1, 3).addEdge(1, 4).addEdge(2, 3).addEdge(2, 4).addEdge(3, 5).addEdge(4, 5)
+                .addEdge(6, 8).addEdge(7, 9).addEdge(8, 10).addEdge(9, 10);
+        GridLayout scrambled = new GridLayout(graph.prepare());
+        Random random = new Random(8);
+        while (scrambled.countCrossings() < 3) {
+            scrambled.mutate(random);
+        }
+        for (int islands : new int[]{1, 3}) {
+            LayoutResult<Integer> result = new GridLayoutEngine()
+                    .populationSize(20)
+                    .sweepSeeds(0)
+                    .islands(islands)
+                    .maxDuration(Duration.ofSeconds(30))
+                    .layout(scrambled.toGridGraph());
+            assertEquals(1, result.getLowerBound());
+            assertTrue(result.isOptimal(), result.toString());
+            assertEquals(1, result.getCrossings());
+            assertTrue(result.getGenerations() < 1000, result.toString());
+        }
+    }
+
+    @Test
+    void islands() {
+        GridGraph<Integer> graph = generateComplexJPL().prepare();
+        LayoutResult<Integer> result = new GridLayoutEngine()
+                .populationSize(30)
+                .islands(4)
+                .migrationInterval(5)
+                .maxDuration(Duration.ofSeconds(10))
+                .maxGenerations(40)
+                .layout(graph);
+        // all generations, unless the lower bound was reached before
+        assertTrue(result.isOptimal() ? result.getGenerations() <= 40 : result.getGenerations() == 40);
+        assertEquals(result.getCrossings(), result.getGraph().countCrossings());
+        assertTrue(result.getCrossings() <= graph.countCrossings());
+        // the best of all generations of all islands, not only of the last one of an epoch
+        assertEquals((int) result.getStatistics().fitness().min(), result.getCrossings());
+    }
+
+    @Test
+    void islandStartsAreFilled() {
+        GridLayoutEngine layoutEngine = new GridLayoutEngine().populationSize(30);
+        GridLayout start = new GridLayout(generateComplexJPL().prepare());
+        Set<String> first = layouts(layoutEngine.islandStart(start));
+        Set<String> second = layouts(layoutEngine.islandStart(start));
+        // mostly different individuals, also between the islands
+        assertTrue(first.size() > 20, first.size() + " different layouts");
+        assertNotEquals(first, second);
+    }
+
+    private static Set<String> layouts(EvolutionStart<LayoutGene, Integer> start) {
+        assertEquals(30, start.population().size());
+        return start.population().stream().map(p -> p.genotype().gene().allele().toString())
+                .collect(Collectors.toSet());
+    }
+}
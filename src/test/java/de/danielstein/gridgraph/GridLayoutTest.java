@@ -0,0 +1,113 @@
+package de.danielstein.gridgraph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GridLayoutTest extends AbstractTest {
+
+    /** Gleiche Zufallszahlen müssen zum gleichen Layout wie im GridGraph führen */
+    @Test
+    void mutateLikeGridGraph() {
+        for (GridGraph<?> graph : Arrays.asList(generateComplexJPL().prepare(), generateJPLkbm002().prepare(),
+                generateJPLWithTwoMajorPaths().prepare())) {
+            GridLayout layout = new GridLayout(graph);
+            Random graphRandom = new Random(4711);
+            Random layoutRandom = new Random(4711);
+            for (int i = 0; i < 500; i++) {
+                if (i % 3 == 0) {
+                    graph.swapRows(graphRandom);
+                    layout.swapRows(layoutRandom);
+                } else {
+                    graph.mutate(graphRandom);
+                    layout.mutate(layoutRandom);
+                }
+                assertEquals(graph.countCrossings(), layout.countCrossings());
+            }
+            assertEquals(graph.toString(), layout.toString());
+        }
+    }
+
+    @Test
+    void copyIsIndependent() {
+        GridLayout layout = new GridLayout(generateComplexJPL().prepare());
+        GridLayout copy = layout.copy();
+        String before = layout.toString();
+        copy.swapRow(0, 1);
+        assertEquals(before, layout.toString());
+        assertNotEquals(before, copy.toString());
+        assertSame(layout.getTopology(), copy.getTopology());
+    }
+
+    @Test
+    void swapTilesKeepsFakesAligned() {
+        GridLayout layout = new GridLayout(generateJPLkbm002().prepare());
+        Random random = new Random(4711);
+        for (int i = 0; i < 500; i++) {
+            layout.mutate(random);
+        }
+        assertFakesAligned(layout);
+    }
+
+    /** Die Deltas der Sweeps müssen zur vollständigen Zählung passen, die Swaps lassen sich rückgängig machen */
+    @Test
+    void swapDeltasAndUndo() {
+        GridLayout layout = new GridLayout(generateJPLkbm002().prepare());
+        Random random = new Random(4711);
+        for (int i = 0; i < 200; i++) {
+            layout.mutate(random);
+            int crossings = layout.countCrossings();
+            int row = random.nextInt(layout.getRowCount() - 1);
+            int delta = layout.rowSwapDelta(row);
+            layout.swapRow(row, row + 1);
+            assertEquals(crossings + delta, layout.countCrossings());
+            layout.swapRow(row, row + 1);
+
+            String before = layout.toString();
+            int l = random.nextInt(layout.getLayerCount());
+            int from = random.nextInt(layout.getRowCount());
+            int to = random.nextInt(layout.getRowCount());
+            if (layout.swapTiles(l, from, to)) {
+                layout.swapTiles(l, to, from);
+            }
+            assertEquals(before, layout.toString());
+        }
+    }
+
+    @Test
+    void crossover() {
+        for (GridGraph<?> graph : Arrays.asList(generateComplexJPL().prepare(), generateJPLkbm002().prepare(),
+                generateJPLWithTwoMajorPaths().prepare())) {
+            Random random = new Random(4711);
+            GridLayout a = new GridLayout(graph);
+            assertEquals(a.toString(), a.crossover(a, random).toString());
+            for (int i = 0; i < 200; i++) {
+                GridLayout b = a.copy();
+                for (int m = 0; m < 20; m++) {
+                    a.mutate(random);
+                    b.mutate(random);
+                }
+                GridLayout child = a.crossover(b, random);
+                assertFakesAligned(child);
+                CompactGrid topology = child.getTopology();
+                for (int v = 0; v < topology.getVertexCount(); v++) {
+                    assertEquals(v, child.vertexAt(topology.getLayer(v), child.getRow(v)));
+                }
+                a = child;
+            }
+        }
+    }
+
+    private static void assertFakesAligned(GridLayout layout) {
+        GridGraph<?> graph = layout.toGridGraph();
+        List<Tile> fakes = graph.layers.stream().flatMap(List::stream).filter(Tile::isFake).collect(java.util.stream.Collectors.toList());
+        for (Tile fake : fakes) {
+            Vertex next = ((Vertex) fake).outgoingEdgesTo().iterator().next();
+            assertEquals(fake.getRow(), next.getRow());
+        }
+    }
+}
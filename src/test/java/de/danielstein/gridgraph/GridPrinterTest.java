@@ -0,0 +1,37 @@
+package de.danielstein.gridgraph;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GridPrinterTest extends AbstractTest {
+
+    @Test
+    void printCrossedPlan() throws IOException {
+        GridGraph<String> graph = generateCrossedPlan().prepare();
+        String expected = "\n\n"
+                + "          S0        S1        S2        S3 \n"
+                + "Z0 --start-+  --save--  --frel--  +-ende-- \n"
+                + "Z1            --dbva--  --info--           \n";
+        assertEquals(expected, new GridPrinter(graph).getGridAsString());
+        StringWriter writer = new StringWriter();
+        new GridPrinter(graph).print(writer);
+        assertEquals(expected, writer.toString());
+        assertEquals(expected, graph.toString());
+    }
+
+    @Test
+    void printFakes() {
+        GridGraph<String> graph = new GridGraph<>();
+        graph.addEdge("a", "b").addEdge("b", "c").addEdge("a", "c");
+        graph.prepare();
+        String expected = "\n\n"
+                + "      S0    S1    S2 \n"
+                + "Z0 --a-+ --b--       \n"
+                + "Z1         --- +-c-- \n";
+        assertEquals(expected, graph.toString());
+    }
+}
@@ -76,7 +76,7 @@ public void layoutStandardJPL(){
                 Codec.of(Genotype.of(AnyChromosome.of(graphSupplier)),gt -> gt.gene().allele());
 
         final Engine<AnyGene<GridGraph<?>>, Integer> engine =
-                Engine.builder( g -> g.getCrossingEdges().size(), CODEC)
+                Engine.builder( GridGraph::countCrossings, CODEC)
                         .minimizing().
                         populationSize(100).
                         alterers(
@@ -92,14 +92,16 @@ public void layoutStandardJPL(){
         //ISeq<EvolutionResult<AnyGene<GridGraph<?>>, Integer>> result = engine.stream().limit(10_000).peek(statistics)
         //        .flatMap(MinMax.toStrictlyDecreasing()).collect(ISeq.toISeq(10));
 
-        Map<String, GridGraph<?>> bestUniqueResults = engine.stream()
+        int lowerBound = graph.crossingLowerBound();
+        Map<Long, GridGraph<?>> bestUniqueResults = engine.stream()
                 //.limit(Limits.byFitnessThreshold(1))
                 //.limit(10_000)
                 .limit(Limits.byExecutionTime(Duration.ofSeconds(2)))
+                .limit(GridLayoutEngine.byLowerBound(lowerBound))
                 //.peek(s -> System.out.println(s.s.generation() + " / " + s.worstFitness()))
                 .peek(statistics)
                          .map(EvolutionResult::bestPhenotype)
-                .map(p -> p.genotype().gene().allele()).collect(Collectors.toMap(GridGraph::toString, p -> p, (p, q) -> p));
+                .map(p -> p.genotype().gene().allele()).collect(Collectors.toMap(GridGraph::fingerprint, p -> p, (p, q) -> p));
         // Ausgabe der Statistiken
         System.out.println(statistics);
 
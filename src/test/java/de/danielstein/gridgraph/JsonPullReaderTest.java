@@ -0,0 +1,71 @@
+package de.danielstein.gridgraph;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.StringReader;
+
+import static de.danielstein.gridgraph.JsonPullReader.Token.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonPullReaderTest {
+
+    @Test
+    void tokens() throws IOException {
+        JsonPullReader reader = new JsonPullReader(new StringReader(
+                "{\"a\" : [1, -2.5e3, \"x\\\"y\\u0041\"], \"b\":{}, \"c\":null,\"d\":true}"));
+        assertEquals(BEGIN_OBJECT, reader.next());
+        assertEquals(NAME, reader.next());
+        assertEquals("a", reader.text());
+        assertEquals(BEGIN_ARRAY, reader.next());
+        assertEquals(NUMBER, reader.next());
+        assertEquals("1", reader.text());
+        assertEquals(NUMBER, reader.next());
+        assertEquals("-2.5e3", reader.text());
+        assertEquals(STRING, reader.peek());
+        assertEquals(STRING, reader.next());
+        assertEquals("x\"yA", reader.text());
+        assertEquals(END_ARRAY, reader.next());
+        assertEquals(NAME, reader.next());
+        assertEquals(BEGIN_OBJECT, reader.next());
+        assertEquals(END_OBJECT, reader.next());
+        assertEquals(NAME, reader.next());
+        assertEquals(LITERAL, reader.next());
+        assertEquals("null", reader.text());
+        assertEquals(NAME, reader.next());
+        assertEquals(LITERAL, reader.next());
+        assertEquals("true", reader.text());
+        assertEquals(END_OBJECT, reader.next());
+        assertEquals(END_DOCUMENT, reader.next());
+    }
+
+    @Test
+    void skipValue() throws IOException {
+        JsonPullReader reader = new JsonPullReader(new StringReader(
+                "[{\"a\":[[], {\"b\":\"]}\"}], \"c\":1}, 2]"));
+        assertEquals(BEGIN_ARRAY, reader.next());
+        reader.skipValue();
+        assertEquals(NUMBER, reader.next());
+        assertEquals("2", reader.text());
+        assertEquals(END_ARRAY, reader.next());
+    }
+
+    @Test
+    void unterminatedString() {
+        JsonPullReader reader = new JsonPullReader(new StringReader("[\"abc"));
+        assertThrows(IOException.class, () -> {
+            reader.next();
+            reader.next();
+        });
+    }
+
+    @Test
+    void interrupted() {
+        JsonPullReader reader = new JsonPullReader(new StringReader("[1]"));
+        Thread.currentThread().interrupt();
+        assertThrows(InterruptedIOException.class, reader::next);
+        // the flag is consumed by the exception
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+}
@@ -0,0 +1,97 @@
+package de.danielstein.gridgraph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LayoutCacheTest extends AbstractTest {
+
+    @Test
+    void hitForRenamedAndReorderedGraph() {
+        LayoutCache cache = new LayoutCache();
+        AtomicInteger layouts = new AtomicInteger();
+        GridGraph<Integer> first = cache.layout(generateComplexJPL(), g -> {
+            layouts.incrementAndGet();
+            return new BarycenterSweep().layout(g.prepare());
+        });
+
+        // same structure, other domain objects, edges added in reverse order
+        List<Edge> edges = edges(generateComplexJPL());
+        Collections.reverse(edges);
+        GridGraph<String> renamed = new GridGraph<>();
+        edges.forEach(e -> renamed.addEdge("job" + e.source.getDomainObj(), "job" + e.target.getDomainObj()));
+        GridGraph<String> second = cache.layout(renamed, g -> {
+            layouts.incrementAndGet();
+            return g.prepare();
+        });
+
+        assertEquals(1, layouts.get());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(first.countCrossings(), second.countCrossings());
+        for (Edge edge : edges) {
+            Vertex source = second.getVertex("job" + edge.source.getDomainObj());
+            Vertex target = second.getVertex("job" + edge.target.getDomainObj());
+            assertTrue(source.getLayer() < target.getLayer());
+        }
+        // the renamed graph reuses a layout of an isomorphic graph, so the layers are the same
+        for (Vertex v : generateComplexJPL().prepare().getDomainVertices()) {
+            assertEquals(first.getVertex((Integer) v.getDomainObj()).getLayer(),
+                    second.getVertex("job" + v.getDomainObj()).getLayer());
+        }
+    }
+
+    @Test
+    void missForOtherStructure() {
+        LayoutCache cache = new LayoutCache();
+        cache.layout(generateCrossedPlan(), GridGraph::prepare);
+        cache.layout(generateComplexJPL(), GridGraph::prepare);
+        GridGraph<String> chain = new GridGraph<>();
+        chain.addEdge("a", "b").addEdge("b", "c").addEdge("c", "d").addEdge("a", "d");
+        cache.layout(chain, GridGraph::prepare);
+        assertEquals(0, cache.getHits());
+        assertEquals(3, cache.getMisses());
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    void eviction() {
+        UnaryOperator<GridGraph<Integer>> prepare = GridGraph::prepare;
+        LayoutCache cache = new LayoutCache().maxEntries(2);
+        cache.layout(chain(2), prepare);
+        cache.layout(chain(3), prepare);
+        cache.layout(chain(2), prepare);
+        cache.layout(chain(4), prepare);
+        // chain(3) was the least recently used
+        cache.layout(chain(3), prepare);
+        assertEquals(1, cache.getHits());
+        assertEquals(4, cache.getMisses());
+        assertEquals(2, cache.getEvictions());
+
+        LayoutCache small = new LayoutCache().maxWeight(10);
+        small.layout(chain(3), prepare);
+        small.layout(chain(4), prepare);
+        assertEquals(1, small.size());
+        assertEquals(7, small.getWeight());
+    }
+
+    private static GridGraph<Integer> chain(int length) {
+        GridGraph<Integer> graph = new GridGraph<>();
+        for (int i = 1; i < length; i++) {
+            graph.addEdge(i, i + 1);
+        }
+        return graph;
+    }
+
+    private static List<Edge> edges(GridGraph<?> graph) {
+        List<Edge> edges = new ArrayList<>();
+        graph.getDomainVertices().forEach(v -> edges.addAll(v.sourceEdges));
+        return edges;
+    }
+}
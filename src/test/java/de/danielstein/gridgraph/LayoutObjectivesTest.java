@@ -0,0 +1,79 @@
+package de.danielstein.gridgraph;
+
+import io.jenetics.engine.Engine;
+import io.jenetics.ext.moea.MOEA;
+import io.jenetics.ext.moea.NSGA2Selector;
+import io.jenetics.ext.moea.Vec;
+import io.jenetics.util.ISeq;
+import io.jenetics.util.IntRange;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LayoutObjectivesTest extends AbstractTest {
+
+    @Test
+    void matchesSeparateCounts() {
+        GridGraph<Integer> graph = generateComplexJPL().prepare();
+        Random random = new Random(5);
+        int[] objectives = new int[LayoutObjectives.COUNT];
+        for (int i = 0; i < 30; i++) {
+            LayoutObjectives.evaluate(new GridLayout(graph), objectives);
+            assertEquals(graph.countCrossings(), objectives[LayoutObjectives.CROSSINGS]);
+            int rowJumps = 0;
+            int bends = 0;
+            for (Edge edge : graph.getEdges()) {
+                int jump = Math.abs(edge.getSource().getRow() - edge.getTarget().getRow());
+                rowJumps += jump;
+                bends += jump > 0 ? 1 : 0;
+            }
+            assertEquals(rowJumps, objectives[LayoutObjectives.ROW_JUMPS]);
+            assertEquals(bends, objectives[LayoutObjectives.BENDS]);
+            long height = IntStream.range(0, graph.getLayers().get(0).size())
+                    .filter(row -> graph.getRow(row).stream().anyMatch(t -> !t.isSpacer())).count();
+            assertEquals(height, objectives[LayoutObjectives.HEIGHT]);
+            graph.mutate(random);
+            // empty rows in between
+            graph.swap(random.nextInt(graph.getLayers().size()), 0, graph.getLayers().get(0).size() + 1);
+        }
+    }
+
+    @Test
+    void weightedSum() {
+        int[] objectives = {3, 10, 4, 7};
+        assertEquals(3 * 100 + 10 + 4 * 5, LayoutObjectives.weightedSum(objectives, new int[]{100, 1, 5, 0}));
+    }
+
+    @Test
+    void paretoFront() {
+        GridLayout start = new GridLayout(generateComplexJPL().prepare());
+        Engine<LayoutGene, Vec<int[]>> engine = Engine.builder(LayoutObjectives::vec, GridLayoutEngine.codec(start))
+                .populationSize(30)
+                .alterers(new LayoutCrossover<>(0.2), new LayoutMutator<>(0.3))
+                .offspringSelector(NSGA2Selector.ofVec())
+                .survivorsSelector(NSGA2Selector.ofVec())
+                .build();
+        ISeq<Vec<int[]>> front = engine.stream().limit(30)
+                .collect(MOEA.toParetoSet(IntRange.of(5, 10)))
+                .map(p -> p.fitness());
+        assertFalse(front.isEmpty());
+        List<Vec<int[]>> vecs = front.asList();
+        // no member of the front dominates another one
+        for (int a = 0; a < vecs.size(); a++) {
+            for (int b = 0; b < vecs.size(); b++) {
+                if (a != b) {
+                    assertEquals(0, vecs.get(a).dominance(vecs.get(b)), vecs.get(a) + " " + vecs.get(b));
+                }
+            }
+        }
+        int[] startObjectives = LayoutObjectives.evaluate(start);
+        // nothing in the front is dominated by the start layout
+        for (Vec<int[]> vec : vecs) {
+            assertTrue(LayoutObjectives.vec(startObjectives).dominance(vec) <= 0);
+        }
+    }
+}
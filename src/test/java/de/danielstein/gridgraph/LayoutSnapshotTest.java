@@ -0,0 +1,113 @@
+package de.danielstein.gridgraph;
+
+import org.javatuples.Pair;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LayoutSnapshotTest extends AbstractTest {
+
+    @Test
+    void snapshotOfGraph() {
+        GridGraph<Integer> graph = generateComplexJPL().prepare();
+        LayoutSnapshot<Integer> snapshot = LayoutSnapshot.of(graph);
+        assertEquals(graph.countCrossings(), snapshot.getCrossings());
+        for (int i = 1; i <= 16; i++) {
+            Vertex vertex = graph.getVertex(i);
+            assertEquals(Pair.with(vertex.getLayer(), vertex.getRow()), snapshot.getPosition(i));
+            assertEquals(i, snapshot.getDomainObj(vertex.getLayer(), vertex.getRow()));
+        }
+        assertNull(snapshot.getPosition(99));
+        assertEquals(-1, snapshot.getRow(99));
+
+        Set<Pair<Integer, Integer>> expected = new HashSet<>();
+        generateComplexJPL().getDomainVertices().forEach(v -> v.sourceEdges.forEach(
+                e -> expected.add(Pair.with((Integer) e.source.getDomainObj(), (Integer) e.target.getDomainObj()))));
+        assertEquals(expected, new HashSet<>(snapshot.getEdges()));
+        assertEquals(List.of(Pair.with(6, 7), Pair.with(6, 9)), sorted(snapshot.getEdges(6)));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getEdges().clear());
+
+        // later changes of the graph are not visible
+        Vertex sixteen = graph.getVertex(16);
+        int row = sixteen.getRow();
+        graph.swap(sixteen.getLayer(), row, row == 0 ? 1 : 0);
+        assertEquals(row, snapshot.getRow(16));
+    }
+
+    @Test
+    void readersWhileOptimizing() throws Exception {
+        GridGraph<Integer> graph = generateComplexJPL().prepare();
+        LayoutSnapshot.Publisher<Integer> publisher = new LayoutSnapshot.Publisher<>();
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<CompletableFuture<Integer>> readers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            readers.add(CompletableFuture.supplyAsync(() -> {
+                int reads = 0;
+                while (running.get()) {
+                    LayoutSnapshot<Integer> snapshot = publisher.current();
+                    if (snapshot != null) {
+                        int layer = snapshot.getLayer(16);
+                        assertEquals(16, snapshot.getDomainObj(layer, snapshot.getRow(16)));
+                        reads++;
+                    }
+                }
+                return reads;
+            }));
+        }
+        LayoutResult<Integer> result = new GridLayoutEngine()
+                .populationSize(30)
+                .maxDuration(Duration.ofSeconds(10))
+                .maxGenerations(50)
+                .layout(graph, publisher);
+        running.set(false);
+        for (CompletableFuture<Integer> reader : readers) {
+            reader.get();
+        }
+        assertEquals(result.getCrossings(), publisher.current().getCrossings());
+    }
+
+    @Test
+    void publishIfBetter() {
+        GridLayout layout = new BarycenterSweep().optimize(new GridLayout(generateComplexJPL().prepare()));
+        LayoutSnapshot.Publisher<Integer> publisher = new LayoutSnapshot.Publisher<>();
+        LayoutSnapshot<Integer> best = LayoutSnapshot.of(layout);
+        Random random = new Random(42);
+        while (layout.countCrossings() <= best.getCrossings()) {
+            layout.mutate(random);
+        }
+        LayoutSnapshot<Integer> crossed = LayoutSnapshot.of(layout);
+        assertTrue(best.getCrossings() < crossed.getCrossings());
+        assertTrue(publisher.publishIfBetter(crossed));
+        assertTrue(publisher.publishIfBetter(best));
+        assertFalse(publisher.publishIfBetter(crossed));
+        assertSame(best, publisher.current());
+    }
+
+    @Test
+    void publisherReusedAfterEdit() {
+        GridGraph<Integer> graph = generateComplexJPL().prepare();
+        LayoutSnapshot.Publisher<Integer> publisher = new LayoutSnapshot.Publisher<>();
+        GridLayoutEngine engine = new GridLayoutEngine().populationSize(10).maxGenerations(5);
+        engine.layout(graph, publisher);
+        graph.insertEdge(16, 99);
+        engine.layout(graph, publisher);
+        // the edited graph replaces the old one, even if that had fewer crossings
+        assertTrue(publisher.current().contains(99));
+        assertEquals(graph.getVertex(16).getLayer() + 1, publisher.current().getLayer(99));
+    }
+
+    private static List<Pair<Integer, Integer>> sorted(List<Pair<Integer, Integer>> edges) {
+        List<Pair<Integer, Integer>> sorted = new ArrayList<>(edges);
+        sorted.sort(null);
+        return sorted;
+    }
+}
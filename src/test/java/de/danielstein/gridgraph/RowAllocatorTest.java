@@ -0,0 +1,49 @@
+package de.danielstein.gridgraph;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RowAllocatorTest {
+
+    @Test
+    void firstFreeRowAcrossLayers() {
+        RowAllocator allocator = new RowAllocator(3, 130);
+        for (int row = 0; row < 100; row++) {
+            allocator.occupy(0, 0, row);
+        }
+        allocator.occupy(1, 2, 100);
+        assertEquals(100, allocator.firstFreeRow(0, 0));
+        assertEquals(0, allocator.firstFreeRow(1, 2));
+        assertEquals(101, allocator.firstFreeRow(0, 1));
+        assertEquals(101, allocator.firstFreeRow(0, 2));
+    }
+
+    @Test
+    void growsWhenFull() {
+        RowAllocator allocator = new RowAllocator(2, 64);
+        for (int row = 0; row < 64; row++) {
+            allocator.occupy(0, 1, row);
+        }
+        assertEquals(64, allocator.firstFreeRow(0, 1));
+        allocator.occupy(1, 1, 64);
+        assertEquals(65, allocator.getRowCount());
+        assertEquals(64, allocator.firstFreeRow(0, 0));
+        assertEquals(65, allocator.firstFreeRow(0, 1));
+    }
+
+    @Test
+    void compactRows() {
+        RowAllocator allocator = new RowAllocator(2, 200);
+        allocator.occupy(0, 0, 3);
+        allocator.occupy(1, 1, 70);
+        allocator.occupy(0, 1, 150);
+        int[] newRow = allocator.compactRows();
+        assertEquals(200, newRow.length);
+        assertEquals(0, newRow[3]);
+        assertEquals(1, newRow[70]);
+        assertEquals(2, newRow[150]);
+        assertEquals(-1, newRow[0]);
+        assertEquals(-1, newRow[199]);
+    }
+}
@@ -0,0 +1,54 @@
+package de.danielstein.gridgraph;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SvgExporterTest extends AbstractTest {
+
+    @Test
+    void exportComplexJPL() throws Exception {
+        GridGraph<Integer> graph = generateComplexJPL();
+        int domainEdges = graph.getDomainVertices().stream().mapToInt(v -> v.sourceEdges.size()).sum();
+        int domainVertices = graph.getDomainVertices().size();
+        graph.prepare();
+
+        Document svg = export(graph);
+        assertEquals(domainVertices, svg.getElementsByTagName("rect").getLength());
+        NodeList polylines = svg.getElementsByTagName("polyline");
+        assertEquals(domainEdges, polylines.getLength());
+        for (int i = 0; i < polylines.getLength(); i++) {
+            String[] points = ((Element) polylines.item(i)).getAttribute("points").trim().split(" ");
+            // straight or with one bend
+            assertTrue(points.length == 2 || points.length == 4, String.join(" ", points));
+            // left to right
+            int startX = Integer.parseInt(points[0].split(",")[0]);
+            int endX = Integer.parseInt(points[points.length - 1].split(",")[0]);
+            assertTrue(startX < endX);
+        }
+    }
+
+    @Test
+    void escapeLabels() throws Exception {
+        GridGraph<String> graph = new GridGraph<>();
+        graph.addEdge("<start>", "a & \"b\"").prepare();
+        Document svg = export(graph);
+        NodeList texts = svg.getElementsByTagName("text");
+        assertEquals("<start>", texts.item(0).getTextContent());
+        assertEquals("a & \"b\"", texts.item(1).getTextContent());
+    }
+
+    private static Document export(GridGraph<?> graph) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new SvgExporter().export(graph, out);
+        return DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .parse(new ByteArrayInputStream(out.toByteArray()));
+    }
+}
@@ -0,0 +1,68 @@
+package de.danielstein.gridgraph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ViewportIndexTest extends AbstractTest {
+
+    @Test
+    void queriesMatchFullScan() {
+        GridGraph<Integer> graph = generateComplexJPL().prepare();
+        Random random = new Random(3);
+        for (int i = 0; i < 10; i++) {
+            graph.mutate(random);
+        }
+        ViewportIndex index = new ViewportIndex(graph);
+        int layerCount = index.getLayerCount();
+        int rowCount = index.getRowCount();
+        for (int fromLayer = 0; fromLayer < layerCount; fromLayer++) {
+            for (int toLayer = fromLayer; toLayer < layerCount; toLayer++) {
+                for (int fromRow = 0; fromRow < rowCount; fromRow++) {
+                    for (int toRow = fromRow; toRow < rowCount; toRow++) {
+                        assertEquals(scanVertices(graph, fromLayer, fromRow, toLayer, toRow),
+                                index.getVertices(fromLayer, fromRow, toLayer, toRow));
+                        assertEquals(scanEdges(graph, fromLayer, fromRow, toLayer, toRow),
+                                index.getEdges(fromLayer, fromRow, toLayer, toRow));
+                    }
+                }
+            }
+        }
+        assertEquals(graph.getEdgeCount(), index.getEdges(-1, -1, layerCount, rowCount).size());
+        assertTrue(index.getEdges(layerCount + 1, 0, layerCount + 2, rowCount).isEmpty());
+    }
+
+    private static List<Vertex> scanVertices(GridGraph<?> graph, int fromLayer, int fromRow, int toLayer, int toRow) {
+        List<Vertex> vertices = new ArrayList<>();
+        for (int l = fromLayer; l <= toLayer; l++) {
+            for (int row = fromRow; row <= toRow; row++) {
+                Tile tile = graph.getTile(l, row);
+                if (!tile.isSpacer()) {
+                    vertices.add((Vertex) tile);
+                }
+            }
+        }
+        return vertices;
+    }
+
+    private static List<Edge> scanEdges(GridGraph<?> graph, int fromLayer, int fromRow, int toLayer, int toRow) {
+        List<Edge> edges = new ArrayList<>();
+        for (List<Tile> layer : graph.getLayers()) {
+            for (Tile tile : layer) {
+                for (Edge edge : tile.sourceEdges) {
+                    int sourceLayer = edge.getSource().getLayer();
+                    int top = Math.min(edge.getSource().getRow(), edge.getTarget().getRow());
+                    int bottom = Math.max(edge.getSource().getRow(), edge.getTarget().getRow());
+                    if (sourceLayer + 1 >= fromLayer && sourceLayer <= toLayer && bottom >= fromRow && top <= toRow) {
+                        edges.add(edge);
+                    }
+                }
+            }
+        }
+        return edges;
+    }
+}